@@ -0,0 +1,63 @@
+package com.github.stefanbirkner.jfortschritt.benchmarks;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.github.stefanbirkner.jfortschritt.Counter;
+import com.github.stefanbirkner.jfortschritt.ProgressLine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link ProgressLine#moveForward()} of a progress line with a
+ * {@link Counter} that is shared by all threads. The progress line writes
+ * to a null sink and has so many steps that it is never complete.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdvanceBenchmark {
+    private ProgressLine progressLine;
+
+    @Setup(Level.Iteration)
+    public void startProgressLine() {
+        progressLine = new ProgressLine(Sinks.NULL.create(), new Counter());
+        progressLine.startWithNumberOfSteps(Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void moveForward_1_thread() {
+        progressLine.moveForward();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void moveForward_4_threads() {
+        progressLine.moveForward();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void moveForward_16_threads() {
+        progressLine.moveForward();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void moveForward_64_threads() {
+        progressLine.moveForward();
+    }
+}
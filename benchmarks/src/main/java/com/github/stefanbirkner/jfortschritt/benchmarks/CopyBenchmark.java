@@ -0,0 +1,114 @@
+package com.github.stefanbirkner.jfortschritt.benchmarks;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import com.github.stefanbirkner.jfortschritt.ProgressFileChannel;
+import com.github.stefanbirkner.jfortschritt.ProgressInputStream;
+import com.github.stefanbirkner.jfortschritt.ProgressLine;
+import com.github.stefanbirkner.jfortschritt.Throughput;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares copying a 64 MiB file with and without progress line. The files
+ * are in the temporary directory, so the results depend on its file system.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CopyBenchmark {
+    private static final int SIZE = 64 * 1024 * 1024;
+    private final byte[] buffer = new byte[64 * 1024];
+    private File source;
+    private File target;
+
+    @Setup
+    public void createFiles() throws IOException {
+        source = File.createTempFile("jfortschritt-source", ".bin");
+        target = File.createTempFile("jfortschritt-target", ".bin");
+        try (RandomAccessFile file = new RandomAccessFile(source, "rw")) {
+            file.setLength(SIZE);
+        }
+    }
+
+    @TearDown
+    public void deleteFiles() {
+        source.delete();
+        target.delete();
+    }
+
+    @Benchmark
+    public void streamCopy() throws IOException {
+        try (InputStream in = new FileInputStream(source)) {
+            copy(in);
+        }
+    }
+
+    @Benchmark
+    public void streamCopyWithProgressLine() throws IOException {
+        ProgressLine progressLine = startProgressLine();
+        try (InputStream in = new ProgressInputStream(
+                new FileInputStream(source), progressLine)) {
+            copy(in);
+        }
+    }
+
+    @Benchmark
+    public void transferTo() throws IOException {
+        try (FileChannel in = new FileInputStream(source).getChannel()) {
+            transfer(in);
+        }
+    }
+
+    @Benchmark
+    public void transferToWithProgressLine() throws IOException {
+        ProgressLine progressLine = startProgressLine();
+        try (FileChannel in = new ProgressFileChannel(
+                new FileInputStream(source).getChannel(), progressLine)) {
+            transfer(in);
+        }
+    }
+
+    private ProgressLine startProgressLine() {
+        ProgressLine progressLine = new ProgressLine(
+            Sinks.PRINT_STREAM.create(), new Throughput(Throughput.Unit.BYTES));
+        progressLine.startWithNumberOfSteps(SIZE);
+        return progressLine;
+    }
+
+    private void copy(InputStream in) throws IOException {
+        try (OutputStream out = new FileOutputStream(target)) {
+            int length;
+            while ((length = in.read(buffer)) != -1)
+                out.write(buffer, 0, length);
+        }
+    }
+
+    private void transfer(FileChannel in) throws IOException {
+        try (FileChannel out = new FileOutputStream(target).getChannel()) {
+            long position = 0;
+            while (position < SIZE)
+                position += in.transferTo(position, SIZE - position, out);
+        }
+    }
+}
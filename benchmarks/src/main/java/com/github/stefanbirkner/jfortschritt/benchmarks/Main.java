@@ -0,0 +1,39 @@
+package com.github.stefanbirkner.jfortschritt.benchmarks;
+
+import java.io.IOException;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so that every result shows the
+ * allocation rate per operation, too. All command line options of JMH are
+ * supported, e.g.
+ * <pre>java -jar target/benchmarks.jar AdvanceBenchmark -f 1</pre>
+ */
+public class Main {
+    public static void main(String... args)
+            throws CommandLineOptionException, IOException, RunnerException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        if (isBenchmarkRun(commandLineOptions))
+            new Runner(
+                new OptionsBuilder()
+                    .parent(commandLineOptions)
+                    .addProfiler(GCProfiler.class)
+                    .build())
+                .run();
+        else
+            org.openjdk.jmh.Main.main(args);
+    }
+
+    private static boolean isBenchmarkRun(CommandLineOptions options) {
+        return !options.shouldHelp()
+            && !options.shouldList()
+            && !options.shouldListWithParams()
+            && !options.shouldListProfilers()
+            && !options.shouldListResultFormats();
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.stefanbirkner.jfortschritt.benchmarks;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.github.stefanbirkner.jfortschritt.Counter;
+import com.github.stefanbirkner.jfortschritt.EstimatedTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the output of the parts that are rendered most often.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PartBenchmark {
+    private static final long NUMBER_OF_STEPS = Long.MAX_VALUE;
+    private final Counter counter = new Counter();
+    private final EstimatedTime estimatedTime = new EstimatedTime();
+    private long step = 0;
+
+    @Setup
+    public void startParts() {
+        counter.progressLineStarted(NUMBER_OF_STEPS);
+        estimatedTime.progressLineStarted(NUMBER_OF_STEPS);
+    }
+
+    @Benchmark
+    public String counter() {
+        return counter.getOutputForStep(++step);
+    }
+
+    @Benchmark
+    public String estimatedTime() {
+        return estimatedTime.getOutputForStep(++step);
+    }
+}
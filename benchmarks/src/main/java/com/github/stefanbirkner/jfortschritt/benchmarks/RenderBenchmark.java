@@ -0,0 +1,79 @@
+package com.github.stefanbirkner.jfortschritt.benchmarks;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.github.stefanbirkner.jfortschritt.Counter;
+import com.github.stefanbirkner.jfortschritt.EstimatedTime;
+import com.github.stefanbirkner.jfortschritt.ProgressLine;
+import com.github.stefanbirkner.jfortschritt.ProgressLinePart;
+import com.github.stefanbirkner.jfortschritt.Sink;
+import com.github.stefanbirkner.jfortschritt.StepLatency;
+import com.github.stefanbirkner.jfortschritt.Throughput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the costs of rendering a frame. A progress line with 70 steps
+ * is rendered completely by every invocation. Every step grows the progress
+ * bar, so that every step renders and writes a new frame. Thus an operation
+ * is a single frame. It includes the (amortized) costs of creating and
+ * starting the progress line.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderBenchmark {
+    private static final int NUMBER_OF_STEPS = 70;
+
+    @Param({"0", "2", "5"})
+    public int numberOfParts;
+
+    @Param({"NULL", "PRINT_STREAM"})
+    public Sinks sinkType;
+
+    private Sink sink;
+
+    @Setup
+    public void createSink() {
+        sink = sinkType.create();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUMBER_OF_STEPS + 1)
+    public void renderProgressLine() {
+        ProgressLine progressLine = new ProgressLine(sink, createParts());
+        progressLine.startWithNumberOfSteps(NUMBER_OF_STEPS);
+        for (int i = 0; i < NUMBER_OF_STEPS; ++i)
+            progressLine.moveForward();
+    }
+
+    private ProgressLinePart[] createParts() {
+        switch (numberOfParts) {
+            case 0:
+                return new ProgressLinePart[0];
+            case 2:
+                return new ProgressLinePart[] {
+                    new Counter(), new EstimatedTime()};
+            case 5:
+                return new ProgressLinePart[] {
+                    new Counter(), new EstimatedTime(), new Throughput(),
+                    new Throughput(Throughput.Unit.BYTES), new StepLatency()};
+            default:
+                throw new IllegalArgumentException(
+                    "There is no configuration with " + numberOfParts + " parts.");
+        }
+    }
+}
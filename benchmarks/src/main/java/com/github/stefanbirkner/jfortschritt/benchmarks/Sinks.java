@@ -0,0 +1,48 @@
+package com.github.stefanbirkner.jfortschritt.benchmarks;
+
+import com.github.stefanbirkner.jfortschritt.PrintStreamSink;
+import com.github.stefanbirkner.jfortschritt.Sink;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * The sinks that the benchmarks write to.
+ */
+public enum Sinks {
+    /**
+     * Discards the chars without encoding them. It shows the costs of
+     * JFortschritt alone.
+     */
+    NULL {
+        @Override
+        public Sink create() {
+            return new Sink() {
+                @Override
+                public void write(char[] chars, int length) {
+                }
+            };
+        }
+    },
+
+    /**
+     * Encodes the chars and writes them to a {@code PrintStream} whose
+     * underlying stream discards the bytes. It adds the costs of encoding
+     * and of the {@code PrintStream} but not the costs of a terminal.
+     */
+    PRINT_STREAM {
+        @Override
+        public Sink create() {
+            return new PrintStreamSink(new PrintStream(new OutputStream() {
+                @Override
+                public void write(int b) {
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                }
+            }));
+        }
+    };
+
+    public abstract Sink create();
+}
@@ -0,0 +1,42 @@
+package com.github.stefanbirkner.jfortschritt;
+
+/**
+ * A {@link LongProgressLinePart} that tells the {@link ProgressLine} whether
+ * its output changed and that appends its output to a buffer of the
+ * progress line instead of creating a new {@code String}. The progress line
+ * keeps the last output of the part and only asks for a new output if it
+ * changed. E.g. the output of {@link EstimatedTime} changes at most once a
+ * second, so that the progress line does not build its text for every
+ * frame.
+ * <p>The progress line always calls {@link #isOutputChanged(long)} before
+ * {@link #appendOutputForStep(long, StringBuilder)} and it calls both
+ * methods with the same step. Parts that only implement
+ * {@link ProgressLinePart} or {@link LongProgressLinePart} are still
+ * supported. Their output is assumed to change for every frame.
+ *
+ * @since 0.3.0
+ */
+public interface AppendingProgressLinePart extends LongProgressLinePart {
+
+    /**
+     * Returns whether the output for the given step differs from the output
+     * that has been appended by
+     * {@link #appendOutputForStep(long, StringBuilder)} the last time. It
+     * must return {@code true} if nothing has been appended since the
+     * progress line has been started.
+     *
+     * @param step the number of the current step.
+     * @return {@code true} if the output changed.
+     * @since 0.3.0
+     */
+    boolean isOutputChanged(long step);
+
+    /**
+     * Appends the text for the given step to the output.
+     *
+     * @param step the number of the current step.
+     * @param output the buffer that the text is appended to.
+     * @since 0.3.0
+     */
+    void appendOutputForStep(long step, StringBuilder output);
+}
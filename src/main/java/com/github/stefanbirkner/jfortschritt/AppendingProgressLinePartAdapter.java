@@ -0,0 +1,60 @@
+package com.github.stefanbirkner.jfortschritt;
+
+/**
+ * Adapts a {@link LongProgressLinePart} to the
+ * {@link AppendingProgressLinePart} interface. The output of the part is
+ * assumed to change for every frame. Parts that are not resumable are
+ * started when the progress line is resumed.
+ */
+class AppendingProgressLinePartAdapter
+        implements AppendingProgressLinePart, ResumableProgressLinePart {
+    private final LongProgressLinePart part;
+
+    AppendingProgressLinePartAdapter(LongProgressLinePart part) {
+        this.part = part;
+    }
+
+    @Override
+    public boolean isOutputChanged(long step) {
+        return true;
+    }
+
+    @Override
+    public void appendOutputForStep(long step, StringBuilder output) {
+        output.append(part.getOutputForStep(step));
+    }
+
+    @Override
+    public void progressLineResumed(long numberOfSteps, long step, long elapsedTime) {
+        if (part instanceof ResumableProgressLinePart)
+            ((ResumableProgressLinePart) part).progressLineResumed(
+                numberOfSteps, step, elapsedTime);
+        else
+            part.progressLineStarted(numberOfSteps);
+    }
+
+    @Override
+    public void progressLineStarted(long numberOfSteps) {
+        part.progressLineStarted(numberOfSteps);
+    }
+
+    @Override
+    public void numberOfStepsChanged(long numberOfSteps) {
+        part.numberOfStepsChanged(numberOfSteps);
+    }
+
+    @Override
+    public String getOutputForStep(long step) {
+        return part.getOutputForStep(step);
+    }
+
+    @Override
+    public void progressLineStarted(int numberOfSteps) {
+        part.progressLineStarted(numberOfSteps);
+    }
+
+    @Override
+    public String getOutputForStep(int step) {
+        return part.getOutputForStep(step);
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.lang.Math.max;
+
+/**
+ * Estimates the rate by the average rate since start. This is a good
+ * estimation for tasks whose steps always need the same time. The elapsed
+ * time is at least one second, so that the first steps don't result in
+ * extreme rates.
+ *
+ * @since 0.3.0
+ */
+public class AverageRateEstimator implements RateEstimator {
+    private static final int ONE_SECOND = 1_000;
+    private long start;
+    private long step;
+    private long time;
+
+    @Override
+    public void start(long time) {
+        this.start = time;
+        this.step = 0;
+        this.time = time;
+    }
+
+    @Override
+    public void addSample(long step, long time) {
+        this.step = step;
+        this.time = time;
+    }
+
+    @Override
+    public double getStepsPerMillisecond() {
+        return (double) step / max(ONE_SECOND, time - start);
+    }
+}
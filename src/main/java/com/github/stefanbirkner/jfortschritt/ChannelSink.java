@@ -0,0 +1,70 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Writes the progress line to a {@link WritableByteChannel}. The text is
+ * encoded into a reused direct {@link ByteBuffer}, so that neither the lock
+ * of a {@code PrintStream} nor its encoder is involved. The channel must be
+ * in blocking mode. Like a {@code PrintStream} the sink never throws an
+ * {@code IOException}. Use {@link #checkError()} for checking whether
+ * writing failed.
+ *
+ * @since 0.3.0
+ */
+public class ChannelSink implements Sink {
+    private final WritableByteChannel channel;
+    private final FrameEncoder encoder;
+    private volatile boolean error = false;
+
+    /**
+     * Creates a sink that writes to the given channel and encodes the text
+     * with the default charset. A channel has no charset of its own. Use
+     * {@link #ChannelSink(WritableByteChannel, Charset)} if the destination
+     * expects another charset, e.g. a console whose encoding differs from
+     * {@code file.encoding}.
+     *
+     * @param channel the channel that the progress line is written to.
+     * @since 0.3.0
+     */
+    public ChannelSink(WritableByteChannel channel) {
+        this(channel, Charset.defaultCharset());
+    }
+
+    /**
+     * Creates a sink that writes to the given channel and encodes the text
+     * with the given charset.
+     *
+     * @param channel the channel that the progress line is written to.
+     * @param charset the charset that is used for encoding the text.
+     * @since 0.3.0
+     */
+    public ChannelSink(WritableByteChannel channel, Charset charset) {
+        this.channel = channel;
+        this.encoder = new FrameEncoder(charset, true);
+    }
+
+    @Override
+    public void write(char[] chars, int length) {
+        ByteBuffer bytes = encoder.encode(chars, length);
+        try {
+            while (bytes.hasRemaining())
+                channel.write(bytes);
+        } catch (IOException e) {
+            error = true;
+        }
+    }
+
+    /**
+     * Returns whether writing to the channel failed at least once.
+     *
+     * @return {@code true} if writing to the channel failed at least once.
+     * @since 0.3.0
+     */
+    public boolean checkError() {
+        return error;
+    }
+}
@@ -1,12 +1,16 @@
 package com.github.stefanbirkner.jfortschritt;
 
 /**
- * Displays the number of steps finished and the total number of steps.
+ * Displays the number of steps finished and the total number of steps. The
+ * progress line only rebuilds the text of the counter if the step or the
+ * total number of steps changed.
  *
  * @since 0.2.0
  */
-public class Counter implements ProgressLinePart {
-    private int numberOfSteps;
+public class Counter implements AppendingProgressLinePart {
+    private long numberOfSteps;
+    private long appendedStep = -1;
+    private long appendedNumberOfSteps;
 
     /**
      * Starts the counter by telling it the total number of steps.
@@ -16,6 +20,29 @@ public class Counter implements ProgressLinePart {
      */
     @Override
     public void progressLineStarted(int numberOfSteps) {
+        progressLineStarted((long) numberOfSteps);
+    }
+
+    /**
+     * Starts the counter by telling it the total number of steps.
+     *
+     * @param numberOfSteps the total number of steps.
+     * @since 0.3.0
+     */
+    @Override
+    public void progressLineStarted(long numberOfSteps) {
+        this.numberOfSteps = numberOfSteps;
+        this.appendedStep = -1;
+    }
+
+    /**
+     * Tells the counter the new total number of steps.
+     *
+     * @param numberOfSteps the new total number of steps.
+     * @since 0.3.0
+     */
+    @Override
+    public void numberOfStepsChanged(long numberOfSteps) {
         this.numberOfSteps = numberOfSteps;
     }
 
@@ -29,6 +56,61 @@ public class Counter implements ProgressLinePart {
      */
     @Override
     public String getOutputForStep(int step) {
-        return "(" + step + "/" + numberOfSteps + ")";
+        return getOutputForStep((long) step);
+    }
+
+    /**
+     * Returns the counter output for the specific step. E.g.
+     * <pre>(3/42)</pre>
+     * If the number of steps is unknown then it displays a question mark
+     * instead of the number of steps. E.g.
+     * <pre>(3/?)</pre>
+     *
+     * @param step the number of the current step.
+     * @return the counter output for the specific step.
+     * @since 0.3.0
+     */
+    @Override
+    public String getOutputForStep(long step) {
+        StringBuilder output = new StringBuilder();
+        appendCounter(step, output);
+        return output.toString();
+    }
+
+    /**
+     * Returns whether the step or the total number of steps changed since
+     * the counter has been appended the last time.
+     *
+     * @param step the number of the current step.
+     * @return {@code true} if the output changed.
+     * @since 0.3.0
+     */
+    @Override
+    public boolean isOutputChanged(long step) {
+        return step != appendedStep || numberOfSteps != appendedNumberOfSteps;
+    }
+
+    /**
+     * Appends the counter output for the specific step. E.g.
+     * <pre>(3/42)</pre>
+     *
+     * @param step the number of the current step.
+     * @param output the buffer that the counter is appended to.
+     * @since 0.3.0
+     */
+    @Override
+    public void appendOutputForStep(long step, StringBuilder output) {
+        appendCounter(step, output);
+        appendedStep = step;
+        appendedNumberOfSteps = numberOfSteps;
+    }
+
+    private void appendCounter(long step, StringBuilder output) {
+        output.append('(').append(step).append('/');
+        if (numberOfSteps == ProgressLine.UNKNOWN_NUMBER_OF_STEPS)
+            output.append('?');
+        else
+            output.append(numberOfSteps);
+        output.append(')');
     }
 }
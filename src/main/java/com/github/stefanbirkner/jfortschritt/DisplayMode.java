@@ -0,0 +1,34 @@
+package com.github.stefanbirkner.jfortschritt;
+
+/**
+ * Determines how a {@link ProgressLine} is written to its {@link Sink}.
+ *
+ * @since 0.3.0
+ */
+public enum DisplayMode {
+    /**
+     * The progress line is a single line that is redrawn whenever it
+     * changes. This is the default mode.
+     *
+     * @since 0.3.0
+     */
+    INTERACTIVE,
+
+    /**
+     * The progress line writes a status line from time to time. Each status
+     * line is terminated by a new line character. This mode is meant for
+     * log files, where redrawing a line is not possible.
+     *
+     * @since 0.3.0
+     */
+    LOG,
+
+    /**
+     * The progress line uses the {@link #INTERACTIVE} mode if it writes to
+     * {@code System.out} or {@code System.err} and the JVM has a console.
+     * Otherwise it uses the {@link #LOG} mode.
+     *
+     * @since 0.3.0
+     */
+    DETECT
+}
@@ -1,17 +1,55 @@
 package com.github.stefanbirkner.jfortschritt;
 
 import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * Displays the estimated time until the progress line is complete. After
  * completion it displays the time elapsed since start.
+ * <p>The estimation is based on the rate that is estimated by a
+ * {@link RateEstimator}. By default it is the average rate since start. Use
+ * another estimator if the rate of your task changes over time.
+ * <pre>new EstimatedTime(new SlidingWindowRateEstimator(100))</pre>
+ * <p>The displayed time has a resolution of one second. Therefore the
+ * progress line only rebuilds the text of the estimated time if it changed
+ * by at least a second.
  *
  * @since 0.2.0
  */
-public class EstimatedTime implements ProgressLinePart {
+public class EstimatedTime
+        implements AppendingProgressLinePart, ResumableProgressLinePart {
     private static final int ONE_SECOND = 1_000;
-    private int numberOfSteps;
+    private static final int NOTHING = 0;
+    private static final int ETA = 1;
+    private static final int ELAPSED = 2;
+    private final RateEstimator estimator;
+    private long numberOfSteps;
     private long start;
+    private int kind;
+    private long seconds;
+    private int appendedKind = -1;
+    private long appendedSeconds;
+
+    /**
+     * Creates an estimated time that is based on the average rate since
+     * start.
+     *
+     * @since 0.2.0
+     */
+    public EstimatedTime() {
+        this(new AverageRateEstimator());
+    }
+
+    /**
+     * Creates an estimated time that is based on the rate that is estimated
+     * by the given estimator.
+     *
+     * @param estimator the estimator for the rate of the progress line.
+     * @since 0.3.0
+     */
+    public EstimatedTime(RateEstimator estimator) {
+        this.estimator = estimator;
+    }
 
     /**
      * Starts the component by telling it the total number of steps.
@@ -21,8 +59,51 @@ public class EstimatedTime implements ProgressLinePart {
      */
     @Override
     public void progressLineStarted(int numberOfSteps) {
+        progressLineStarted((long) numberOfSteps);
+    }
+
+    /**
+     * Starts the component by telling it the total number of steps.
+     *
+     * @param numberOfSteps the total number of steps.
+     * @since 0.3.0
+     */
+    @Override
+    public void progressLineStarted(long numberOfSteps) {
         this.numberOfSteps = numberOfSteps;
         this.start = getTime();
+        this.appendedKind = -1;
+        estimator.start(start);
+    }
+
+    /**
+     * Starts the component with the history of a previous run. The
+     * estimation continues with the rate of the previous run.
+     *
+     * @param numberOfSteps the total number of steps.
+     * @param step the step that has been reached by the previous run.
+     * @param elapsedTime the time in milliseconds that the previous run
+     *                    needed to reach this step.
+     * @since 0.3.0
+     */
+    @Override
+    public void progressLineResumed(long numberOfSteps, long step, long elapsedTime) {
+        this.numberOfSteps = numberOfSteps;
+        this.start = getTime() - elapsedTime;
+        this.appendedKind = -1;
+        estimator.start(start);
+    }
+
+    /**
+     * Tells the component the new total number of steps. The estimation
+     * continues with the rate of the steps so far.
+     *
+     * @param numberOfSteps the new total number of steps.
+     * @since 0.3.0
+     */
+    @Override
+    public void numberOfStepsChanged(long numberOfSteps) {
+        this.numberOfSteps = numberOfSteps;
     }
 
     /**
@@ -37,22 +118,83 @@ public class EstimatedTime implements ProgressLinePart {
      */
     @Override
     public String getOutputForStep(int step) {
-        if (step == 0)
-            return "";
+        return getOutputForStep((long) step);
+    }
+
+    /**
+     * Returns the estimated time that is needed for completion. E.g.
+     * <pre>eta 10s</pre>
+     * After completion it displays the time elapsed since start. E.g.
+     * <pre>in 2m 10s</pre>
+     * Nothing is displayed while the number of steps is unknown.
+     *
+     * @param step the number of the current step.
+     * @return the estimated time or the time elapsed since start.
+     * @since 0.3.0
+     */
+    @Override
+    public String getOutputForStep(long step) {
+        determineOutput(step);
+        StringBuilder output = new StringBuilder();
+        appendOutput(output);
+        return output.toString();
+    }
+
+    /**
+     * Returns whether the estimated time for the given step differs from the
+     * estimated time that has been appended the last time. The estimated
+     * time is only displayed in seconds and therefore it changes at most
+     * once a second while the rate is stable.
+     *
+     * @param step the number of the current step.
+     * @return {@code true} if the output changed.
+     * @since 0.3.0
+     */
+    @Override
+    public boolean isOutputChanged(long step) {
+        determineOutput(step);
+        return kind != appendedKind || seconds != appendedSeconds;
+    }
+
+    /**
+     * Appends the estimated time that has been determined by
+     * {@link #isOutputChanged(long)} for the same step.
+     *
+     * @param step the number of the current step.
+     * @param output the buffer that the estimated time is appended to.
+     * @since 0.3.0
+     */
+    @Override
+    public void appendOutputForStep(long step, StringBuilder output) {
+        appendOutput(output);
+        appendedKind = kind;
+        appendedSeconds = seconds;
+    }
+
+    private void determineOutput(long step) {
+        if (step == 0 || numberOfSteps == ProgressLine.UNKNOWN_NUMBER_OF_STEPS)
+            kind = NOTHING;
         else if (step < numberOfSteps)
-            return getEstimatedTime(step);
+            determineEstimatedTime(step);
         else
-            return getTimeWhenComplete();
+            determineTimeWhenComplete();
     }
 
-    private String getEstimatedTime(int step) {
-        int remainingSteps = numberOfSteps - step;
-        long remainingTime = remainingSteps * getElapsedTime() / step;
-        return "eta " + format(remainingTime);
+    private void determineEstimatedTime(long step) {
+        estimator.addSample(step, getTime());
+        double stepsPerMillisecond = estimator.getStepsPerMillisecond();
+        if (stepsPerMillisecond <= 0) {
+            kind = NOTHING;
+        } else {
+            long remainingSteps = numberOfSteps - step;
+            kind = ETA;
+            seconds = toSeconds((long) (remainingSteps / stepsPerMillisecond));
+        }
     }
 
-    private String getTimeWhenComplete() {
-        return "in " + format(getElapsedTime());
+    private void determineTimeWhenComplete() {
+        kind = ELAPSED;
+        seconds = toSeconds(getElapsedTime());
     }
 
     private long getElapsedTime() {
@@ -60,32 +202,33 @@ public class EstimatedTime implements ProgressLinePart {
         return max(ONE_SECOND, elapsedTime);
     }
 
-    private String format(long time) {
-        long seconds = (time + ONE_SECOND - 1) / ONE_SECOND;
+    private long toSeconds(long time) {
+        return (time + ONE_SECOND - 1) / ONE_SECOND;
+    }
+
+    private void appendOutput(StringBuilder output) {
+        if (kind == ETA)
+            appendTime("eta ", output);
+        else if (kind == ELAPSED)
+            appendTime("in ", output);
+    }
+
+    private void appendTime(String prefix, StringBuilder output) {
         long minutes = seconds / 60;
         long hours = minutes / 60;
+        output.append(prefix);
         if (minutes == 0)
-            return secondsWithoutMinutes(seconds);
+            output.append(seconds % 60).append('s');
         else if (hours == 0)
-            return minutesWithoutHours(minutes) + " " + secondsWithoutMinutes(seconds);
+            output.append(minutes % 60).append("m ")
+                .append(seconds % 60).append('s');
         else
-            return hours(hours) + " " + minutesWithoutHours(minutes);
-    }
-
-    private String secondsWithoutMinutes(long seconds) {
-        return seconds % 60 + "s";
-    }
-
-    private String minutesWithoutHours(long minutes) {
-        return minutes % 60 + "m";
-    }
-
-    private String hours(long hours) {
-        return hours + "h";
+            output.append(hours).append("h ")
+                .append(minutes % 60).append('m');
     }
 
     //is used to override time in tests.
     long getTime() {
-        return System.currentTimeMillis();
+        return NANOSECONDS.toMillis(System.nanoTime());
     }
 }
@@ -0,0 +1,70 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.lang.Math.exp;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estimates the rate by an exponentially weighted moving average of the
+ * rates between the samples. Recent rates have a higher weight than older
+ * ones. The weight of a rate decreases by the factor {@code e} per time
+ * constant. Therefore the time constant determines how fast the estimation
+ * follows changes of the rate. The weights take into account the time
+ * between samples, so that the estimation does not depend on how often the
+ * progress line is rendered.
+ *
+ * @since 0.3.0
+ */
+public class ExponentiallyWeightedRateEstimator implements RateEstimator {
+    private final double timeConstant;
+    private long step;
+    private long time;
+    private double rate;
+    private boolean hasRate;
+
+    /**
+     * Creates an estimator with the given time constant.
+     *
+     * @param timeConstant the time after which the weight of a rate has
+     *                     decreased by the factor {@code e}.
+     * @param unit the unit of {@code timeConstant}.
+     * @throws IllegalArgumentException if {@code timeConstant} is not
+     *                                  positive.
+     * @since 0.3.0
+     */
+    public ExponentiallyWeightedRateEstimator(long timeConstant, TimeUnit unit) {
+        if (timeConstant <= 0)
+            throw new IllegalArgumentException(
+                "You cannot set the time constant to " + timeConstant
+                    + " because it must be a positive number.");
+        this.timeConstant = unit.toNanos(timeConstant) / 1e6;
+    }
+
+    @Override
+    public void start(long time) {
+        this.step = 0;
+        this.time = time;
+        this.rate = 0;
+        this.hasRate = false;
+    }
+
+    @Override
+    public void addSample(long step, long time) {
+        long duration = time - this.time;
+        if (duration <= 0)
+            return;
+        double currentRate = (double) (step - this.step) / duration;
+        if (hasRate)
+            rate += (1 - exp(-duration / timeConstant)) * (currentRate - rate);
+        else
+            rate = currentRate;
+        hasRate = true;
+        this.step = step;
+        this.time = time;
+    }
+
+    @Override
+    public double getStepsPerMillisecond() {
+        return rate;
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.lang.Math.max;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.fill;
+
+/**
+ * The characters of a single rendering of a {@link ProgressLine}. A frame is
+ * reused for every rendering and only allocates memory if it has to store
+ * more characters than ever before.
+ */
+class Frame {
+    private static final int INITIAL_CAPACITY = 128;
+    private char[] chars = new char[INITIAL_CAPACITY];
+    private int length = 0;
+
+    void clear() {
+        length = 0;
+    }
+
+    void append(char c) {
+        ensureCapacity(length + 1);
+        chars[length++] = c;
+    }
+
+    void append(char c, int n) {
+        if (n <= 0)
+            return;
+        ensureCapacity(length + n);
+        fill(chars, length, length + n, c);
+        length += n;
+    }
+
+    void append(String text) {
+        int n = text.length();
+        ensureCapacity(length + n);
+        text.getChars(0, n, chars, length);
+        length += n;
+    }
+
+    void append(StringBuilder text) {
+        int n = text.length();
+        ensureCapacity(length + n);
+        text.getChars(0, n, chars, length);
+        length += n;
+    }
+
+    void append(int number) {
+        if (number >= 10)
+            append(number / 10);
+        append((char) ('0' + number % 10));
+    }
+
+    void append(Frame other) {
+        ensureCapacity(length + other.length);
+        System.arraycopy(other.chars, 0, chars, length, other.length);
+        length += other.length;
+    }
+
+    void copyFrom(Frame other) {
+        clear();
+        ensureCapacity(other.length);
+        System.arraycopy(other.chars, 0, chars, 0, other.length);
+        length = other.length;
+    }
+
+    boolean hasSameContentAs(Frame other) {
+        if (length != other.length)
+            return false;
+        for (int i = 0; i < length; ++i)
+            if (chars[i] != other.chars[i])
+                return false;
+        return true;
+    }
+
+    char[] chars() {
+        return chars;
+    }
+
+    int length() {
+        return length;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > chars.length)
+            chars = copyOf(chars, max(capacity, 2 * chars.length));
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.nio.charset.CodingErrorAction.REPLACE;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+
+/**
+ * Encodes the text of a frame into bytes. The encoder reuses its buffers, so
+ * that encoding a frame does not allocate memory unless the frame is longer
+ * than all frames before.
+ */
+class FrameEncoder {
+    private final CharsetEncoder encoder;
+    private final boolean direct;
+    private CharBuffer input;
+    private ByteBuffer output;
+
+    FrameEncoder(Charset charset, boolean direct) {
+        this.encoder = charset.newEncoder()
+            .onMalformedInput(REPLACE)
+            .onUnmappableCharacter(REPLACE);
+        this.direct = direct;
+        this.output = allocate(128);
+    }
+
+    /**
+     * Encodes the first {@code length} chars and returns a buffer with the
+     * bytes. The buffer is only valid until the next call of this method.
+     */
+    ByteBuffer encode(char[] chars, int length) {
+        wrap(chars, length);
+        while (!tryToEncodeInput())
+            output = allocate(2 * output.capacity());
+        output.flip();
+        return output;
+    }
+
+    private void wrap(char[] chars, int length) {
+        if (input == null || input.array() != chars)
+            input = CharBuffer.wrap(chars);
+        input.clear();
+        input.limit(length);
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        if (direct)
+            return ByteBuffer.allocateDirect(capacity);
+        else
+            return ByteBuffer.allocate(capacity);
+    }
+
+    private boolean tryToEncodeInput() {
+        input.rewind();
+        output.clear();
+        encoder.reset();
+        CoderResult result = encoder.encode(input, output, true);
+        if (result.isOverflow())
+            return false;
+        else
+            return !encoder.flush(output).isOverflow();
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.lang.Math.min;
+
+/**
+ * Adapts a {@link ProgressLinePart} that only supports {@code int} steps to
+ * the {@link LongProgressLinePart} interface. Values that don't fit into an
+ * {@code int} are capped at {@link Integer#MAX_VALUE}.
+ */
+class IntProgressLinePartAdapter implements LongProgressLinePart {
+    private final ProgressLinePart part;
+
+    IntProgressLinePartAdapter(ProgressLinePart part) {
+        this.part = part;
+    }
+
+    @Override
+    public void progressLineStarted(long numberOfSteps) {
+        part.progressLineStarted(toInt(numberOfSteps));
+    }
+
+    @Override
+    public void numberOfStepsChanged(long numberOfSteps) {
+        //parts that only know ints cannot be informed about the change in
+        //any other way.
+        part.progressLineStarted(toInt(numberOfSteps));
+    }
+
+    @Override
+    public String getOutputForStep(long step) {
+        return part.getOutputForStep(toInt(step));
+    }
+
+    @Override
+    public void progressLineStarted(int numberOfSteps) {
+        part.progressLineStarted(numberOfSteps);
+    }
+
+    @Override
+    public String getOutputForStep(int step) {
+        return part.getOutputForStep(step);
+    }
+
+    private int toInt(long value) {
+        return (int) min(value, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,286 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.round;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Displays the resource usage of the JVM. E.g.
+ * <pre>heap 45% gc 2% cpu 87%</pre>
+ * <p>{@code heap} is the used part of the maximum heap, {@code gc} is the
+ * fraction of the time since the last sample that has been spent in garbage
+ * collection and {@code cpu} is the CPU load of the JVM process. The CPU
+ * load is omitted if the JVM does not provide it.
+ * <p>The values are read from the platform MXBeans by a background thread
+ * once a second by default. The progress line only reads the text of the
+ * last sample. Therefore moving the progress line forward has no additional
+ * costs. The background thread is stopped when the progress line is
+ * complete, when it is {@link ProgressLine#close() closed} before, e.g.
+ * because its task failed, or by {@link #stop()}.
+ * <pre>new JvmResources(5, TimeUnit.SECONDS)</pre>
+ *
+ * @since 0.3.0
+ */
+public class JvmResources
+        implements AppendingProgressLinePart, StoppableProgressLinePart {
+    private static final String OPERATING_SYSTEM = "java.lang:type=OperatingSystem";
+    private final long interval;
+    private final TimeUnit unit;
+    private volatile long numberOfSteps;
+    private volatile Sample lastSample = new Sample("");
+    private Sample appendedSample;
+    //the following fields are guarded by this.
+    private ScheduledExecutorService sampler;
+    private long timeOfLastSample;
+    private long collectionTimeOfLastSample;
+
+    /**
+     * Creates a part that samples the resource usage once a second.
+     *
+     * @since 0.3.0
+     */
+    public JvmResources() {
+        this(1, SECONDS);
+    }
+
+    /**
+     * Creates a part that samples the resource usage at the given interval.
+     *
+     * @param interval the time between two samples.
+     * @param unit the unit of the interval.
+     * @throws IllegalArgumentException if the interval is not positive.
+     * @since 0.3.0
+     */
+    public JvmResources(long interval, TimeUnit unit) {
+        if (interval <= 0)
+            throw new IllegalArgumentException(
+                "You cannot set the sample interval to " + interval
+                    + " because it must be positive.");
+        this.interval = interval;
+        this.unit = unit;
+    }
+
+    /**
+     * Takes the first sample and starts sampling in the background.
+     *
+     * @param numberOfSteps the total number of steps.
+     * @since 0.3.0
+     */
+    @Override
+    public void progressLineStarted(int numberOfSteps) {
+        progressLineStarted((long) numberOfSteps);
+    }
+
+    /**
+     * Takes the first sample and starts sampling in the background.
+     *
+     * @param numberOfSteps the total number of steps.
+     * @since 0.3.0
+     */
+    @Override
+    public void progressLineStarted(long numberOfSteps) {
+        this.numberOfSteps = numberOfSteps;
+        this.appendedSample = null;
+        startSampling();
+    }
+
+    private synchronized void startSampling() {
+        stop();
+        sample();
+        sampler = newSingleThreadScheduledExecutor(new SamplerThreadFactory());
+        sampler.scheduleAtFixedRate(
+            new Runnable() {
+                @Override
+                public void run() {
+                    sample();
+                }
+            },
+            interval, interval, unit);
+    }
+
+    /**
+     * Tells the part the new total number of steps.
+     *
+     * @param numberOfSteps the new total number of steps.
+     * @since 0.3.0
+     */
+    @Override
+    public void numberOfStepsChanged(long numberOfSteps) {
+        this.numberOfSteps = numberOfSteps;
+    }
+
+    /**
+     * Stops sampling when the progress line is complete or closed.
+     *
+     * @since 0.3.0
+     */
+    @Override
+    public void progressLineStopped() {
+        stop();
+    }
+
+    /**
+     * Stops sampling. The part keeps displaying the last sample.
+     *
+     * @since 0.3.0
+     */
+    public synchronized void stop() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+            sampler = null;
+        }
+    }
+
+    /**
+     * Returns the resource usage of the last sample. E.g.
+     * <pre>heap 45% gc 2% cpu 87%</pre>
+     *
+     * @param step the number of the current step.
+     * @return the resource usage of the last sample.
+     * @since 0.3.0
+     */
+    @Override
+    public String getOutputForStep(int step) {
+        return getOutputForStep((long) step);
+    }
+
+    /**
+     * Returns the resource usage of the last sample. E.g.
+     * <pre>heap 45% gc 2% cpu 87%</pre>
+     *
+     * @param step the number of the current step.
+     * @return the resource usage of the last sample.
+     * @since 0.3.0
+     */
+    @Override
+    public String getOutputForStep(long step) {
+        stopIfComplete(step);
+        return lastSample.text;
+    }
+
+    /**
+     * Returns whether a new sample has been taken since the output has been
+     * appended the last time.
+     *
+     * @param step the number of the current step.
+     * @return {@code true} if the output changed.
+     * @since 0.3.0
+     */
+    @Override
+    public boolean isOutputChanged(long step) {
+        stopIfComplete(step);
+        //every sample is a new object, so that the text is not compared.
+        return lastSample != appendedSample;
+    }
+
+    /**
+     * Appends the resource usage of the last sample.
+     *
+     * @param step the number of the current step.
+     * @param output the buffer that the resource usage is appended to.
+     * @since 0.3.0
+     */
+    @Override
+    public void appendOutputForStep(long step, StringBuilder output) {
+        Sample lastSample = this.lastSample;
+        output.append(lastSample.text);
+        appendedSample = lastSample;
+    }
+
+    private void stopIfComplete(long step) {
+        if (step >= numberOfSteps
+                && numberOfSteps != ProgressLine.UNKNOWN_NUMBER_OF_STEPS)
+            stop();
+    }
+
+    synchronized void sample() {
+        long time = getTime();
+        long collectionTime = getCollectionTime();
+        long gcPercent = 0;
+        if (time > timeOfLastSample && timeOfLastSample != 0)
+            gcPercent = percent(
+                collectionTime - collectionTimeOfLastSample,
+                time - timeOfLastSample);
+        timeOfLastSample = time;
+        collectionTimeOfLastSample = collectionTime;
+        StringBuilder sample = new StringBuilder();
+        sample.append("heap ").append(getHeapPercent()).append("% gc ")
+            .append(gcPercent).append('%');
+        double cpuLoad = getProcessCpuLoad();
+        if (cpuLoad >= 0)
+            sample.append(" cpu ").append(round(100 * cpuLoad)).append('%');
+        lastSample = new Sample(sample.toString());
+    }
+
+    private long getHeapPercent() {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long max = heap.getMax() > 0 ? heap.getMax() : heap.getCommitted();
+        return percent(heap.getUsed(), max);
+    }
+
+    private long getCollectionTime() {
+        long collectionTime = 0;
+        for (GarbageCollectorMXBean collector
+                : ManagementFactory.getGarbageCollectorMXBeans())
+            collectionTime += max(0, collector.getCollectionTime());
+        return collectionTime;
+    }
+
+    private double getProcessCpuLoad() {
+        //the attribute is not part of the standard OperatingSystemMXBean.
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            Object load = server.getAttribute(
+                new ObjectName(OPERATING_SYSTEM), "ProcessCpuLoad");
+            return load instanceof Double ? (Double) load : -1;
+        } catch (JMException e) {
+            return -1;
+        }
+    }
+
+    private static long percent(long value, long total) {
+        if (total <= 0)
+            return 0;
+        else
+            return min(100, round(100.0 * value / total));
+    }
+
+    synchronized boolean isSampling() {
+        return sampler != null;
+    }
+
+    //is used to override time in tests.
+    long getTime() {
+        return NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    private static class Sample {
+        final String text;
+
+        Sample(String text) {
+            this.text = text;
+        }
+    }
+
+    private static class SamplerThreadFactory implements ThreadFactory {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "jfortschritt-jvm-resources");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.lang.Long.numberOfLeadingZeros;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative values with a fixed memory footprint. Values
+ * below 16 have their own bucket. Above every power of two is split into 16
+ * buckets, so that the relative error of a value is at most 6.25%. Recording
+ * a value does not allocate memory and is thread-safe.
+ */
+class LogHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int NUMBER_OF_BUCKETS
+        = (63 - SUB_BUCKET_BITS) * SUB_BUCKETS + SUB_BUCKETS;
+    private final AtomicLongArray counts = new AtomicLongArray(NUMBER_OF_BUCKETS);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long value, long count) {
+        counts.addAndGet(indexOf(value), count);
+        totalCount.addAndGet(count);
+        long currentMax;
+        do {
+            currentMax = max.get();
+            if (value <= currentMax)
+                return;
+        } while (!max.compareAndSet(currentMax, value));
+    }
+
+    long getTotalCount() {
+        return totalCount.get();
+    }
+
+    long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the highest value of the bucket that contains the given
+     * percentile. It is never greater than the maximum recorded value.
+     */
+    long getValueAtPercentile(double percentile) {
+        long total = totalCount.get();
+        long countAtPercentile = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long count = 0;
+        for (int index = 0; index < NUMBER_OF_BUCKETS; ++index) {
+            count += counts.get(index);
+            if (count >= countAtPercentile)
+                return Math.min(highestValueOf(index), max.get());
+        }
+        return max.get();
+    }
+
+    int getNumberOfBuckets() {
+        return NUMBER_OF_BUCKETS;
+    }
+
+    long getCount(int index) {
+        return counts.get(index);
+    }
+
+    long highestValueOf(int index) {
+        if (index < SUB_BUCKETS)
+            return index;
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = SUB_BUCKETS + index % SUB_BUCKETS;
+        return ((subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    private int indexOf(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) Math.max(0, value);
+        int exponent = 63 - numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.stefanbirkner.jfortschritt;
+
+/**
+ * A {@link ProgressLinePart} that supports more than
+ * {@link Integer#MAX_VALUE} steps. A {@link ProgressLine} only calls the
+ * methods with {@code long} arguments of such a part. Parts that only
+ * implement {@code ProgressLinePart} are still supported. They get the number
+ * of steps and the current step capped at {@code Integer.MAX_VALUE} and are
+ * started again if the number of steps changes.
+ *
+ * @since 0.3.0
+ */
+public interface LongProgressLinePart extends ProgressLinePart {
+
+    /**
+     * Called by the {@link ProgressLine} when it is started.
+     *
+     * @param numberOfSteps the total number of steps or
+     *                      {@link ProgressLine#UNKNOWN_NUMBER_OF_STEPS} if
+     *                      the number of steps is unknown.
+     * @since 0.3.0
+     */
+    void progressLineStarted(long numberOfSteps);
+
+    /**
+     * Called by the {@link ProgressLine} when its number of steps changes
+     * while it is running. The number of steps is never unknown afterwards.
+     *
+     * @param numberOfSteps the new total number of steps.
+     * @since 0.3.0
+     */
+    void numberOfStepsChanged(long numberOfSteps);
+
+    /**
+     * Returns the text that is appended to the progress line. The progress
+     * line always calls {@link #progressLineStarted(long)} before calling
+     * this method.
+     *
+     * @param step the number of the current step.
+     * @return the text that is appended to the progress line.
+     * @since 0.3.0
+     */
+    String getOutputForStep(long step);
+}
@@ -0,0 +1,261 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A multi progress line shows the progress of several tasks that run in
+ * parallel. Every task has its own progress line and all of them are shown as
+ * a block of lines on the console.
+ * <pre>   MultiProgressLine multiProgressLine = new MultiProgressLine();
+ * ProgressLine download = multiProgressLine.{@link #addProgressLine(ProgressLinePart...) addProgressLine(new Counter())};
+ * ProgressLine upload = multiProgressLine.addProgressLine(new Counter());
+ * multiProgressLine.{@link #start()};
+ * download.startWithNumberOfSteps(100);
+ * upload.startWithNumberOfSteps(20);
+ * ...
+ * multiProgressLine.{@link #stop()};</pre>
+ * <p>The progress lines of a multi progress line don't render themselves.
+ * Moving them forward only increases their counters. A single thread of the
+ * multi progress line renders all lines at a fixed interval. Only the lines
+ * whose text changed are redrawn. The whole block is written to the
+ * {@link Sink} at once, so that output of different lines is never
+ * interleaved.
+ * <p>The multi progress line moves the cursor by ANSI escape sequences.
+ * Therefore it needs a console that supports them.
+ *
+ * @since 0.3.0
+ */
+public class MultiProgressLine {
+    private static final long DEFAULT_RENDER_INTERVAL = 100;
+    private static final Sink DISCARDING_SINK = new Sink() {
+        @Override
+        public void write(char[] chars, int length) {
+        }
+    };
+    private final Sink sink;
+    private final List<ProgressLine> progressLines
+        = new CopyOnWriteArrayList<>();
+    private final List<Frame> printedRows = new ArrayList<>();
+    private final Frame row = new Frame();
+    private final Frame output = new Frame();
+    private ScheduledExecutorService renderer;
+
+    /**
+     * Creates a multi progress line that writes to {@code System.out}.
+     *
+     * @since 0.3.0
+     */
+    public MultiProgressLine() {
+        this(new StandardOutputSink());
+    }
+
+    /**
+     * Creates a multi progress line that writes to the given sink.
+     *
+     * @param sink the destination of the progress lines.
+     * @since 0.3.0
+     */
+    public MultiProgressLine(Sink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Adds a new progress line below the other progress lines. The line is
+     * shown as an empty line until it is started.
+     *
+     * @param additionalParts the parts that are shown after the progress bar.
+     * @return the new progress line.
+     * @since 0.3.0
+     */
+    public ProgressLine addProgressLine(ProgressLinePart... additionalParts) {
+        ProgressLine progressLine = new ProgressLine(
+            false, DISCARDING_SINK, additionalParts);
+        progressLines.add(progressLine);
+        return progressLine;
+    }
+
+    /**
+     * Removes a progress line. The lines below it move up by one line.
+     *
+     * @param progressLine the progress line that is removed.
+     * @since 0.3.0
+     */
+    public void removeProgressLine(ProgressLine progressLine) {
+        progressLines.remove(progressLine);
+    }
+
+    /**
+     * Starts rendering the progress lines every 100 milliseconds.
+     *
+     * @since 0.3.0
+     */
+    public void start() {
+        start(DEFAULT_RENDER_INTERVAL, MILLISECONDS);
+    }
+
+    /**
+     * Starts rendering the progress lines at the given interval.
+     *
+     * @param interval the time between two renderings.
+     * @param unit the unit of the interval.
+     * @throws IllegalArgumentException if the interval is not positive.
+     * @throws IllegalStateException if the multi progress line has already
+     * been started.
+     * @since 0.3.0
+     */
+    public synchronized void start(long interval, TimeUnit unit) {
+        if (interval <= 0)
+            throw new IllegalArgumentException(
+                "You cannot set the render interval to " + interval
+                    + " because it must be positive.");
+        if (renderer != null)
+            throw new IllegalStateException(
+                "The multi progress line has already been started and cannot be started twice.");
+        renderer = newSingleThreadScheduledExecutor(new RenderThreadFactory());
+        renderer.scheduleWithFixedDelay(
+            new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        render();
+                    } catch (RuntimeException e) {
+                        //an exception would cancel the scheduled renderings.
+                        Thread thread = Thread.currentThread();
+                        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                    }
+                }
+            },
+            0, interval, unit);
+    }
+
+    /**
+     * Stops rendering and renders the progress lines a last time. A
+     * rendering that is in progress is completed before.
+     *
+     * @since 0.3.0
+     */
+    public void stop() {
+        ScheduledExecutorService renderer;
+        synchronized (this) {
+            renderer = this.renderer;
+            this.renderer = null;
+        }
+        if (renderer != null) {
+            //the renderer is not interrupted, because an interrupt closes
+            //an interruptible channel of the sink.
+            renderer.shutdown();
+            awaitTermination(renderer);
+        }
+        render();
+    }
+
+    private static void awaitTermination(ScheduledExecutorService renderer) {
+        boolean interrupted = false;
+        while (!renderer.isTerminated()) {
+            try {
+                renderer.awaitTermination(1, SECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Renders all progress lines. The cursor is always at the start of the
+     * line below the block of progress lines before and after rendering. A
+     * line whose parts throw an exception keeps its text and the exception
+     * is thrown after the other lines have been rendered.
+     */
+    synchronized void render() {
+        output.clear();
+        RuntimeException failure = null;
+        int index = 0;
+        for (ProgressLine progressLine : progressLines) {
+            row.clear();
+            try {
+                progressLine.appendProgressBarTo(row);
+            } catch (RuntimeException e) {
+                if (failure == null)
+                    failure = e;
+                if (index < printedRows.size())
+                    row.copyFrom(printedRows.get(index));
+            }
+            renderRow(index++);
+        }
+        if (index < printedRows.size())
+            appendRemovalOfRowsFrom(index);
+        if (output.length() > 0)
+            sink.write(output.chars(), output.length());
+        if (failure != null)
+            throw failure;
+    }
+
+    private void renderRow(int index) {
+        if (index == printedRows.size())
+            appendNewRow();
+        else if (!row.hasSameContentAs(printedRows.get(index)))
+            appendRedrawOfRow(index);
+    }
+
+    private void appendNewRow() {
+        output.append(row);
+        appendEraseRestOfLine();
+        output.append('\n');
+        Frame printedRow = new Frame();
+        printedRow.copyFrom(row);
+        printedRows.add(printedRow);
+    }
+
+    private void appendRedrawOfRow(int index) {
+        int distance = printedRows.size() - index;
+        appendEscapeSequence(distance, 'A');
+        output.append('\r');
+        output.append(row);
+        appendEraseRestOfLine();
+        appendEscapeSequence(distance, 'B');
+        output.append('\r');
+        printedRows.get(index).copyFrom(row);
+    }
+
+    private void appendRemovalOfRowsFrom(int index) {
+        //moves the cursor to the first row that is removed and erases the
+        //screen from there, so that the cursor is below the smaller block.
+        appendEscapeSequence(printedRows.size() - index, 'A');
+        output.append('\r');
+        output.append('\u001b');
+        output.append("[J");
+        printedRows.subList(index, printedRows.size()).clear();
+    }
+
+    private void appendEraseRestOfLine() {
+        output.append('\u001b');
+        output.append("[K");
+    }
+
+    private void appendEscapeSequence(int count, char command) {
+        output.append('\u001b');
+        output.append('[');
+        output.append(count);
+        output.append(command);
+    }
+
+    private static class RenderThreadFactory implements ThreadFactory {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "jfortschritt-renderer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
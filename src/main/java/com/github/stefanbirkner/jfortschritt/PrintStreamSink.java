@@ -0,0 +1,80 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Writes the progress line to a {@link PrintStream}. By default the text is
+ * encoded by the stream with its own charset and written with a single call
+ * of {@link PrintStream#print(char[])}. If the sink is created with a
+ * charset then it encodes the text itself and writes it with a single call
+ * of {@link PrintStream#write(byte[], int, int)}. Like the
+ * {@code PrintStream} itself the sink never throws an {@code IOException}.
+ * Use {@link PrintStream#checkError()} for checking whether writing failed.
+ *
+ * @since 0.3.0
+ */
+public class PrintStreamSink implements Sink {
+    private final PrintStream stream;
+    private final FrameEncoder encoder; //is null if the stream encodes
+    private char[] text = new char[0];
+
+    /**
+     * Creates a sink that writes to the given stream and lets the stream
+     * encode the text with its own charset. The stream allocates a small
+     * buffer for every frame. Use {@link #PrintStreamSink(PrintStream, Charset)}
+     * with the charset of the stream if this matters.
+     *
+     * @param stream the stream that the progress line is written to.
+     * @since 0.3.0
+     */
+    public PrintStreamSink(PrintStream stream) {
+        this.stream = stream;
+        this.encoder = null;
+    }
+
+    /**
+     * Creates a sink that writes to the given stream and encodes the text
+     * with the given charset. The charset should be the charset of the
+     * stream, because text that is written by others is encoded by the
+     * stream.
+     *
+     * @param stream the stream that the progress line is written to.
+     * @param charset the charset that is used for encoding the text.
+     * @since 0.3.0
+     */
+    public PrintStreamSink(PrintStream stream, Charset charset) {
+        this.stream = stream;
+        this.encoder = new FrameEncoder(charset, false);
+    }
+
+    @Override
+    public void write(char[] chars, int length) {
+        if (encoder == null) {
+            getStream().print(textOf(chars, length));
+        } else {
+            ByteBuffer bytes = encoder.encode(chars, length);
+            getStream().write(bytes.array(), bytes.arrayOffset(), bytes.remaining());
+        }
+    }
+
+    private char[] textOf(char[] chars, int length) {
+        //the stream can only print whole arrays. The array is reused,
+        //because the frames of a progress line mostly have the same length.
+        if (text.length != length)
+            text = new char[length];
+        System.arraycopy(chars, 0, text, 0, length);
+        return text;
+    }
+
+    boolean writesToStandardStream() {
+        PrintStream stream = getStream();
+        return stream == System.out || stream == System.err;
+    }
+
+    //is overridden by the sink for System.out.
+    PrintStream getStream() {
+        return stream;
+    }
+}
@@ -0,0 +1,291 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static com.github.stefanbirkner.jfortschritt.ProgressMessages.*;
+import static java.lang.Math.max;
+import static java.util.Collections.newSetFromMap;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Combines the progress of several worker processes on the same host into a
+ * single {@link ProgressLine}. Every worker works on a shard of the task and
+ * reports its progress by a {@link ProgressReporter}.
+ * <pre>   ProgressLine progressLine = new ProgressLine(new Counter(), new EstimatedTime());
+ * ProgressAggregator aggregator = new ProgressAggregator(progressLine, 4);
+ * aggregator.{@link #start()};
+ * int port = aggregator.{@link #getPort()}; //is passed to the workers
+ * ...
+ * aggregator.{@link #stop()};</pre>
+ * <p>The aggregator starts the progress line with an unknown number of
+ * steps. It sets the total number of steps of all shards as soon as all
+ * shards joined and reported their number of steps. Shards whose number of
+ * steps grows increase the total number of steps.
+ * <p>Workers may join and leave at any time. A shard keeps its steps when
+ * its worker leaves, so that another worker can continue it by joining with
+ * the same name. Steps that the new worker reports are only counted if they
+ * go beyond the steps that the shard reported before.
+ * <p>The aggregator listens on the loopback interface and has a thread for
+ * accepting workers and a thread for every worker.
+ *
+ * @since 0.3.0
+ */
+public class ProgressAggregator {
+    private final ProgressLine progressLine;
+    private final int numberOfShards;
+    private final Set<Socket> connections
+        = newSetFromMap(new ConcurrentHashMap<Socket, Boolean>());
+    //the following fields are guarded by this.
+    private final Map<String, Shard> shards = new HashMap<>();
+    private ServerSocket serverSocket;
+    private long numberOfSteps = 0;
+    private boolean numberOfStepsKnown = false;
+    private boolean complete = false;
+
+    /**
+     * Creates an aggregator for a task that is split into the given number
+     * of shards.
+     *
+     * @param progressLine the progress line that shows the combined
+     *                     progress. It is started by the aggregator.
+     * @param numberOfShards the number of shards of the task.
+     * @throws IllegalArgumentException if {@code numberOfShards} is not
+     *                                  positive.
+     * @since 0.3.0
+     */
+    public ProgressAggregator(ProgressLine progressLine, int numberOfShards) {
+        if (numberOfShards <= 0)
+            throw new IllegalArgumentException(
+                "You cannot set the number of shards to " + numberOfShards
+                    + " because it must be positive.");
+        this.progressLine = progressLine;
+        this.numberOfShards = numberOfShards;
+    }
+
+    /**
+     * Starts listening for workers on a free port of the loopback interface
+     * and starts the progress line.
+     *
+     * @throws IOException if the aggregator cannot listen.
+     * @since 0.3.0
+     */
+    public void start() throws IOException {
+        start(0);
+    }
+
+    /**
+     * Starts listening for workers on the given port of the loopback
+     * interface and starts the progress line.
+     *
+     * @param port the port or zero for a free port.
+     * @throws IOException if the aggregator cannot listen.
+     * @throws IllegalStateException if the aggregator has already been
+     *                               started.
+     * @since 0.3.0
+     */
+    public synchronized void start(int port) throws IOException {
+        if (serverSocket != null)
+            throw new IllegalStateException(
+                "The aggregator has already been started and cannot be started twice.");
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        progressLine.startWithUnknownNumberOfSteps();
+        final ServerSocket serverSocket = this.serverSocket;
+        startThread(new Runnable() {
+            @Override
+            public void run() {
+                acceptWorkers(serverSocket);
+            }
+        });
+    }
+
+    /**
+     * Returns the port that the aggregator listens on.
+     *
+     * @return the port that the aggregator listens on.
+     * @throws IllegalStateException if the aggregator has not been started.
+     * @since 0.3.0
+     */
+    public synchronized int getPort() {
+        if (serverSocket == null)
+            throw new IllegalStateException(
+                "The aggregator has no port because it has not been started.");
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of workers that are currently connected.
+     *
+     * @return the number of connected workers.
+     * @since 0.3.0
+     */
+    public int getNumberOfWorkers() {
+        return connections.size();
+    }
+
+    /**
+     * Stops listening and closes the connections to all workers. The
+     * progress line keeps the progress that has been reported so far.
+     *
+     * @since 0.3.0
+     */
+    public void stop() {
+        ServerSocket serverSocket;
+        synchronized (this) {
+            serverSocket = this.serverSocket;
+        }
+        if (serverSocket != null)
+            closeQuietly(serverSocket);
+        for (Socket connection : connections)
+            closeQuietly(connection);
+    }
+
+    private void acceptWorkers(ServerSocket serverSocket) {
+        try {
+            while (true) {
+                final Socket socket = serverSocket.accept();
+                connections.add(socket);
+                startThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        readMessages(socket);
+                    }
+                });
+            }
+        } catch (IOException e) {
+            //the aggregator has been stopped.
+        }
+    }
+
+    private void readMessages(Socket socket) {
+        try {
+            DataInputStream input = new DataInputStream(
+                new BufferedInputStream(socket.getInputStream()));
+            if (input.readInt() != MAGIC_NUMBER || input.readUnsignedByte() != JOIN)
+                return;
+            readProgress(input, new Connection(join(input.readUTF())));
+        } catch (IOException e) {
+            //a worker that closes the connection leaves.
+        } finally {
+            connections.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private void readProgress(DataInputStream input, Connection connection)
+            throws IOException {
+        while (true) {
+            int type = input.readUnsignedByte();
+            switch (type) {
+                case PROGRESS:
+                    update(connection, readVarLong(input), 0, false);
+                    break;
+                case PROGRESS_WITH_TOTAL:
+                    update(connection, readVarLong(input), readVarLong(input), true);
+                    break;
+                case LEAVE:
+                    return;
+                default:
+                    throw new IOException("Unknown message type " + type + ".");
+            }
+        }
+    }
+
+    private synchronized Shard join(String name) {
+        Shard shard = shards.get(name);
+        if (shard == null) {
+            shard = new Shard();
+            shards.put(name, shard);
+        }
+        return shard;
+    }
+
+    synchronized void update(Connection connection, long steps,
+            long numberOfStepsOfShard, boolean numberOfStepsOfShardKnown) {
+        connection.steps += steps;
+        connection.numberOfSteps += numberOfStepsOfShard;
+        Shard shard = connection.shard;
+        shard.numberOfStepsKnown |= numberOfStepsOfShardKnown;
+        //a worker that continues a shard may report steps that have already
+        //been reported by its predecessor. The number of steps of a shard
+        //grows with its steps while it is unknown.
+        long additionalNumberOfSteps = max(0,
+            max(connection.numberOfSteps, connection.steps) - shard.numberOfSteps);
+        long additionalSteps = max(0, connection.steps - shard.steps);
+        shard.numberOfSteps += additionalNumberOfSteps;
+        shard.steps += additionalSteps;
+        numberOfSteps += additionalNumberOfSteps;
+        updateProgressLine(additionalSteps, additionalNumberOfSteps);
+    }
+
+    private void updateProgressLine(long additionalSteps, long additionalNumberOfSteps) {
+        if (complete)
+            return;
+        if (numberOfStepsKnown) {
+            if (additionalNumberOfSteps > 0)
+                progressLine.increaseNumberOfSteps(additionalNumberOfSteps);
+            progressLine.moveForward(additionalSteps);
+        } else {
+            progressLine.moveForward(additionalSteps);
+            if (isNumberOfStepsOfAllShardsKnown()) {
+                numberOfStepsKnown = true;
+                progressLine.setNumberOfSteps(numberOfSteps);
+            }
+        }
+        complete = numberOfStepsKnown
+            && progressLine.getSnapshot().isComplete();
+    }
+
+    private boolean isNumberOfStepsOfAllShardsKnown() {
+        if (shards.size() < numberOfShards)
+            return false;
+        for (Shard shard : shards.values())
+            if (!shard.numberOfStepsKnown)
+                return false;
+        return true;
+    }
+
+    private static void startThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "jfortschritt-aggregator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            //there is nothing that the aggregator could do.
+        }
+    }
+
+    /**
+     * The progress that has been reported for a shard by all its workers.
+     */
+    static class Shard {
+        long steps = 0;
+        long numberOfSteps = 0;
+        boolean numberOfStepsKnown = false;
+    }
+
+    /**
+     * The progress that has been reported by a single worker.
+     */
+    static class Connection {
+        final Shard shard;
+        long steps = 0;
+        long numberOfSteps = 0;
+
+        Connection(Shard shard) {
+            this.shard = shard;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@code ExecutorService} that moves a {@link ProgressLine} forward
+ * whenever a task is finished. The service is created with the number of
+ * tasks that are going to be submitted and starts the progress line with
+ * this number.
+ * <pre>   ExecutorService executor = new ProgressExecutorService(
+ *     Executors.newFixedThreadPool(8), progressLine, tasks.size());
+ * for (Runnable task : tasks)
+ *     executor.submit(task);</pre>
+ * <p>Tasks that fail are counted, too. Tasks that are cancelled before they
+ * run are counted when the underlying executor dequeues them. Tasks that are
+ * returned by {@link #shutdownNow()} are counted, too, so that the progress
+ * line is complete when the running tasks are finished. Tasks that are
+ * rejected by the underlying executor are not counted.
+ * <p>The tasks are executed by the underlying executor. This can be any
+ * executor, e.g. an executor that starts a virtual thread per task. With
+ * many short tasks you should set a
+ * {@link ProgressLine#setMinimumRedrawInterval(long, TimeUnit) minimum redraw interval}.
+ * Then most finished tasks only increment the counter of the progress line
+ * and don't even try to acquire the lock for rendering it.
+ *
+ * @since 0.3.0
+ */
+public class ProgressExecutorService extends AbstractExecutorService {
+    private final ExecutorService executor;
+    private final ProgressLine progressLine;
+    private final long numberOfTasks;
+    private final AtomicLong numberOfSubmittedTasks = new AtomicLong(0);
+
+    /**
+     * Creates a service that executes its tasks by the given executor and
+     * starts the progress line with the given number of tasks.
+     *
+     * @param executor the executor that executes the tasks.
+     * @param progressLine the progress line that is started and moved
+     *                     forward.
+     * @param numberOfTasks the number of tasks that are going to be
+     *                      submitted.
+     * @throws IllegalArgumentException if {@code numberOfTasks} is negative.
+     * @throws IllegalStateException if the progress line has already been
+     *                               started.
+     * @since 0.3.0
+     */
+    public ProgressExecutorService(
+            ExecutorService executor, ProgressLine progressLine, long numberOfTasks) {
+        this.executor = executor;
+        this.progressLine = progressLine;
+        this.numberOfTasks = numberOfTasks;
+        progressLine.startWithNumberOfSteps(numberOfTasks);
+    }
+
+    /**
+     * Executes the given command by the underlying executor and moves the
+     * progress line forward when the command is finished.
+     *
+     * @param command the command that is executed.
+     * @throws RejectedExecutionException if more tasks than announced are
+     *                                    submitted or if the underlying
+     *                                    executor rejects the command.
+     * @since 0.3.0
+     */
+    @Override
+    public void execute(Runnable command) {
+        if (numberOfSubmittedTasks.incrementAndGet() > numberOfTasks) {
+            numberOfSubmittedTasks.decrementAndGet();
+            throw new RejectedExecutionException(
+                "The task cannot be executed because all " + numberOfTasks
+                    + " tasks have already been submitted.");
+        }
+        try {
+            executor.execute(new ProgressTask(command));
+        } catch (RejectedExecutionException e) {
+            numberOfSubmittedTasks.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Attempts to stop all running tasks and returns the tasks that never
+     * started. These tasks are counted as finished.
+     *
+     * @return the submitted tasks that never started.
+     * @since 0.3.0
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> tasks = new ArrayList<>();
+        for (Runnable task : executor.shutdownNow()) {
+            if (task instanceof ProgressTask) {
+                tasks.add(((ProgressTask) task).command);
+                progressLine.moveForward();
+            } else {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return executor.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    private class ProgressTask implements Runnable {
+        final Runnable command;
+
+        ProgressTask(Runnable command) {
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            try {
+                command.run();
+            } finally {
+                progressLine.moveForward();
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Reads the state of a {@link ProgressLine} that is published to a file by
+ * {@link ProgressLine#publishTo(File)}. The file can be read while another
+ * process updates it.
+ * <pre>ProgressSnapshot snapshot = ProgressFile.read(new File("job.progress"));</pre>
+ * <p>The class can be used as a command line tool, too. It prints the state
+ * of the progress line.
+ * <pre>java -cp jfortschritt.jar com.github.stefanbirkner.jfortschritt.ProgressFile job.progress</pre>
+ * <p>The file has a fixed size of 64 bytes and the following layout. Values
+ * are big-endian.
+ * <pre>
+ * offset  type    value
+ *  0      int     magic number 0x4A46504C ("JFPL")
+ *  4      int     version of the layout (1)
+ *  8      long    sequence number, odd while the state is written and 0
+ *                 if no state has been written yet
+ * 16      long    number of steps, -1 if unknown
+ * 24      long    current step
+ * 32      long    start time in milliseconds since the epoch
+ * 40      long    time of the update in milliseconds since the epoch
+ * 48      double  average number of steps per second
+ * </pre>
+ *
+ * @since 0.3.0
+ */
+public final class ProgressFile {
+    static final int SIZE = 64;
+    static final int MAGIC_NUMBER = 0x4A46504C;
+    static final int VERSION = 1;
+    static final int MAGIC_NUMBER_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int SEQUENCE_OFFSET = 8;
+    static final int NUMBER_OF_STEPS_OFFSET = 16;
+    static final int CURRENT_STEP_OFFSET = 24;
+    static final int START_TIME_OFFSET = 32;
+    static final int TIME_OFFSET = 40;
+    static final int STEPS_PER_SECOND_OFFSET = 48;
+    private static final int MAX_ATTEMPTS = 10_000;
+    private static volatile int fence;
+
+    private ProgressFile() {
+    }
+
+    /**
+     * Prints the state of the progress line that is published to the file
+     * that is specified by the first argument.
+     *
+     * @param args the name of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    public static void main(String... args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: java " + ProgressFile.class.getName()
+                + " <progress file>");
+            System.exit(1);
+        }
+        System.out.println(read(new File(args[0])));
+    }
+
+    /**
+     * Reads the state of a progress line from a file.
+     *
+     * @param file the file that the progress line is published to.
+     * @return the state of the progress line.
+     * @throws IOException if the file cannot be read, is not a progress file,
+     *                     has no state yet or is not updated completely for a
+     *                     long time.
+     * @since 0.3.0
+     */
+    public static ProgressSnapshot read(File file) throws IOException {
+        ProgressSnapshot snapshot = readIfPublished(file);
+        if (snapshot == null)
+            throw new IOException("The progress file " + file
+                + " has no state because no progress line published its state to it.");
+        return snapshot;
+    }
+
+    /**
+     * Reads the state of a progress line from a file or returns
+     * {@code null} if the file does not exist or no state has been written
+     * to it yet.
+     */
+    static ProgressSnapshot readIfPublished(File file) throws IOException {
+        if (!file.exists())
+            return null;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            if (randomAccessFile.length() < SIZE)
+                throw notAProgressFile(file);
+            MappedByteBuffer buffer = randomAccessFile.getChannel()
+                .map(READ_ONLY, 0, SIZE);
+            if (buffer.getInt(MAGIC_NUMBER_OFFSET) != MAGIC_NUMBER
+                    || buffer.getInt(VERSION_OFFSET) != VERSION)
+                throw notAProgressFile(file);
+            return read(buffer, file);
+        }
+    }
+
+    private static ProgressSnapshot read(MappedByteBuffer buffer, File file)
+            throws IOException {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; ++attempt) {
+            long sequence = buffer.getLong(SEQUENCE_OFFSET);
+            if (sequence == 0)
+                return null;
+            else if (sequence % 2 == 0) {
+                fullFence();
+                ProgressSnapshot snapshot = new ProgressSnapshot(
+                    buffer.getLong(NUMBER_OF_STEPS_OFFSET),
+                    buffer.getLong(CURRENT_STEP_OFFSET),
+                    buffer.getLong(START_TIME_OFFSET),
+                    buffer.getLong(TIME_OFFSET),
+                    buffer.getDouble(STEPS_PER_SECOND_OFFSET));
+                fullFence();
+                if (buffer.getLong(SEQUENCE_OFFSET) == sequence)
+                    return snapshot;
+            }
+            Thread.yield();
+        }
+        throw new IOException("The progress file " + file
+            + " is not updated completely for a long time.");
+    }
+
+    /**
+     * Prevents that reads and writes of the buffer are reordered across
+     * this call. Java 7 has no explicit fences, but the JVM does not move
+     * any access across a volatile write that is followed by a volatile
+     * read. The memory model only covers threads of the same process.
+     * Therefore the consistency of reads of a file that is written by
+     * another process is only as good as this fence on the actual JVM.
+     */
+    static void fullFence() {
+        fence = 0;
+        if (fence != 0)
+            throw new AssertionError("The fence has been modified.");
+    }
+
+    private static IOException notAProgressFile(File file) {
+        return new IOException("The file " + file + " is not a progress file.");
+    }
+}
@@ -0,0 +1,195 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.lang.Math.min;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A {@code FileChannel} that moves a {@link ProgressLine} forward by the
+ * number of bytes that are read, written or transferred. The progress line
+ * has to be started with the number of bytes that are going to be
+ * processed.
+ * <p>{@link #transferTo(long, long, WritableByteChannel)} and
+ * {@link #transferFrom(ReadableByteChannel, long, long)} are split into
+ * chunks. Each chunk is transferred by the wrapped channel, so that the
+ * operating system can still copy the bytes without copying them to the
+ * JVM. The progress line is moved forward after each chunk.
+ * <pre>   try (FileChannel source = new ProgressFileChannel(
+ *         FileChannel.open(path), progressLine)) {
+ *     source.transferTo(0, source.size(), target);
+ * }</pre>
+ * <p>Don't wrap both channels of a transfer because the wrapped channel can
+ * only use the fast path if the other channel is a plain
+ * {@code FileChannel}. Bytes of buffers that are created by
+ * {@link #map(MapMode, long, long)} are not counted.
+ *
+ * @since 0.3.0
+ */
+public class ProgressFileChannel extends FileChannel {
+    private static final long DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+    private final FileChannel channel;
+    private final ProgressLine progressLine;
+    private final long chunkSize;
+
+    /**
+     * Creates a channel that wraps the given channel and transfers bytes in
+     * chunks of 8 MiB.
+     *
+     * @param channel the channel that is wrapped.
+     * @param progressLine the progress line that is moved forward.
+     * @since 0.3.0
+     */
+    public ProgressFileChannel(FileChannel channel, ProgressLine progressLine) {
+        this(channel, progressLine, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a channel that wraps the given channel and transfers bytes in
+     * chunks of the given size.
+     *
+     * @param channel the channel that is wrapped.
+     * @param progressLine the progress line that is moved forward.
+     * @param chunkSize the maximum number of bytes that are transferred
+     *                  before the progress line is moved forward.
+     * @throws IllegalArgumentException if {@code chunkSize} is not positive.
+     * @since 0.3.0
+     */
+    public ProgressFileChannel(
+            FileChannel channel, ProgressLine progressLine, long chunkSize) {
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException(
+                "You cannot set the chunk size to " + chunkSize
+                    + " because it must be a positive number.");
+        this.channel = channel;
+        this.progressLine = progressLine;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        return moveForward(channel.read(dst));
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+        return moveForward(channel.read(dsts, offset, length));
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+        return moveForward(channel.read(dst, position));
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        return moveForward(channel.write(src));
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        return moveForward(channel.write(srcs, offset, length));
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) throws IOException {
+        return moveForward(channel.write(src, position));
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target)
+            throws IOException {
+        long transferred = 0;
+        while (transferred < count) {
+            long n = channel.transferTo(
+                position + transferred, min(chunkSize, count - transferred), target);
+            if (n <= 0)
+                break;
+            progressLine.moveForward(n);
+            transferred += n;
+        }
+        return transferred;
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count)
+            throws IOException {
+        long transferred = 0;
+        while (transferred < count) {
+            long n = channel.transferFrom(
+                src, position + transferred, min(chunkSize, count - transferred));
+            if (n <= 0)
+                break;
+            progressLine.moveForward(n);
+            transferred += n;
+        }
+        return transferred;
+    }
+
+    @Override
+    public long position() throws IOException {
+        return channel.position();
+    }
+
+    @Override
+    public FileChannel position(long newPosition) throws IOException {
+        channel.position(newPosition);
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public FileChannel truncate(long size) throws IOException {
+        channel.truncate(size);
+        return this;
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+        channel.force(metaData);
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size)
+            throws IOException {
+        return channel.map(mode, position, size);
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared)
+            throws IOException {
+        return channel.lock(position, size, shared);
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared)
+            throws IOException {
+        return channel.tryLock(position, size, shared);
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+        channel.close();
+    }
+
+    private int moveForward(int n) {
+        if (n > 0)
+            progressLine.moveForward(n);
+        return n;
+    }
+
+    private long moveForward(long n) {
+        if (n > 0)
+            progressLine.moveForward(n);
+        return n;
+    }
+}
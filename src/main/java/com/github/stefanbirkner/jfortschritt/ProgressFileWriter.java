@@ -0,0 +1,51 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static com.github.stefanbirkner.jfortschritt.ProgressFile.*;
+import static java.lang.Math.max;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Writes the state of a progress line to a memory-mapped
+ * {@link ProgressFile}. Writing is a couple of stores to memory and needs no
+ * system call. The state is guarded by a sequence number, so that readers
+ * in other processes can detect that they have read a state that is
+ * currently updated. There must be only one thread at a time that writes.
+ */
+class ProgressFileWriter {
+    private final MappedByteBuffer buffer;
+    private long sequence;
+
+    ProgressFileWriter(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(SIZE);
+            buffer = randomAccessFile.getChannel().map(READ_WRITE, 0, SIZE);
+        }
+        long sequence = buffer.getLong(SEQUENCE_OFFSET);
+        this.sequence = sequence % 2 == 0 ? sequence : sequence + 1;
+        buffer.putInt(MAGIC_NUMBER_OFFSET, MAGIC_NUMBER);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+    }
+
+    void write(long numberOfSteps, long currentStep, long startTime) {
+        long time = System.currentTimeMillis();
+        long sequence = this.sequence + 1;
+        buffer.putLong(SEQUENCE_OFFSET, sequence);
+        //the fences prevent the writes of the state from being reordered
+        //across the writes of the sequence number.
+        fullFence();
+        buffer.putLong(NUMBER_OF_STEPS_OFFSET, numberOfSteps);
+        buffer.putLong(CURRENT_STEP_OFFSET, currentStep);
+        buffer.putLong(START_TIME_OFFSET, startTime);
+        buffer.putLong(TIME_OFFSET, time);
+        buffer.putDouble(STEPS_PER_SECOND_OFFSET,
+            1000d * currentStep / max(1, time - startTime));
+        fullFence();
+        buffer.putLong(SEQUENCE_OFFSET, sequence + 1);
+        this.sequence = sequence + 1;
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An {@code InputStream} that moves a {@link ProgressLine} forward by the
+ * number of bytes that are read or skipped. The progress line has to be
+ * started with the number of bytes that are going to be read. The stream does
+ * not support {@link #mark(int)} and {@link #reset()} because bytes that are
+ * read again would be counted twice.
+ *
+ * @since 0.3.0
+ */
+public class ProgressInputStream extends FilterInputStream {
+    private final ProgressLine progressLine;
+
+    /**
+     * Creates a stream that reads from the given stream.
+     *
+     * @param in the stream that is read.
+     * @param progressLine the progress line that is moved forward.
+     * @since 0.3.0
+     */
+    public ProgressInputStream(InputStream in, ProgressLine progressLine) {
+        super(in);
+        this.progressLine = progressLine;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b != -1)
+            progressLine.moveForward();
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n > 0)
+            progressLine.moveForward(n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(n);
+        if (skipped > 0)
+            progressLine.moveForward(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("ProgressInputStream does not support reset().");
+    }
+}
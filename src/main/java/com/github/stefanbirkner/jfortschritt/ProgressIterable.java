@@ -0,0 +1,80 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * An {@code Iterable} whose iterators move a {@link ProgressLine} forward for
+ * each element. This allows you to track the progress of a for-each loop.
+ * <pre>   for (Row row : ProgressIterable.startWithElementsOf(rows, progressLine))
+ *     process(row);</pre>
+ * <p>Each iterator is a {@link ProgressIterator}. See its documentation for
+ * the batch size and for loops that stop before the end.
+ *
+ * @param <T> the type of the elements.
+ * @since 0.3.0
+ */
+public class ProgressIterable<T> implements Iterable<T> {
+    private final Iterable<T> iterable;
+    private final ProgressLine progressLine;
+    private final int batchSize;
+
+    /**
+     * Starts the progress line with the size of the given collection and
+     * returns an iterable that moves the progress line forward for each
+     * element of the collection.
+     *
+     * @param collection the collection that provides the elements.
+     * @param progressLine the progress line that is started and moved
+     *                     forward.
+     * @param <T> the type of the elements.
+     * @return an iterable that moves the progress line forward.
+     * @throws IllegalStateException if the progress line has already been
+     *                               started.
+     * @since 0.3.0
+     */
+    public static <T> ProgressIterable<T> startWithElementsOf(
+            Collection<T> collection, ProgressLine progressLine) {
+        progressLine.startWithNumberOfSteps((long) collection.size());
+        return new ProgressIterable<>(collection, progressLine);
+    }
+
+    /**
+     * Creates an iterable whose iterators move the progress line forward for
+     * each element. The progress line has to be started by the caller.
+     *
+     * @param iterable the iterable that provides the elements.
+     * @param progressLine the progress line that is moved forward.
+     * @since 0.3.0
+     */
+    public ProgressIterable(Iterable<T> iterable, ProgressLine progressLine) {
+        this(iterable, progressLine, 1);
+    }
+
+    /**
+     * Creates an iterable whose iterators move the progress line forward for
+     * each batch of elements. The progress line has to be started by the
+     * caller.
+     *
+     * @param iterable the iterable that provides the elements.
+     * @param progressLine the progress line that is moved forward.
+     * @param batchSize the number of elements that are reported at once.
+     * @throws IllegalArgumentException if {@code batchSize} is not positive.
+     * @since 0.3.0
+     */
+    public ProgressIterable(
+            Iterable<T> iterable, ProgressLine progressLine, int batchSize) {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException(
+                "You cannot set the batch size to " + batchSize
+                    + " because it must be a positive number.");
+        this.iterable = iterable;
+        this.progressLine = progressLine;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new ProgressIterator<>(iterable.iterator(), progressLine, batchSize);
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * An {@code Iterator} that moves a {@link ProgressLine} forward for each
+ * element that is returned by {@link #next()}.
+ * <p>The iterator can report its elements in batches. Then it moves the
+ * progress line forward once per batch and once for the remaining elements
+ * when {@link #hasNext()} returns {@code false}. Use batches if many threads
+ * iterate over parts of the same task, e.g. each thread over its own
+ * partition. They reduce the contention on the counter of the shared
+ * progress line.
+ * <p>A loop that stops before the end, e.g. by {@code break} or by an
+ * exception, does not reach {@link #hasNext()} returning {@code false}. Close
+ * the iterator to report the elements of the unfinished batch.
+ * <pre>   try (ProgressIterator&lt;Row&gt; rows = new ProgressIterator&lt;&gt;(
+ *         partition.iterator(), progressLine, 100)) {
+ *     while (rows.hasNext())
+ *         process(rows.next());
+ * }</pre>
+ *
+ * @param <T> the type of the elements.
+ * @since 0.3.0
+ */
+public class ProgressIterator<T> implements Iterator<T>, Closeable {
+    private final Iterator<T> iterator;
+    private final ProgressLine progressLine;
+    private final int batchSize;
+    private int unreportedElements = 0;
+
+    /**
+     * Creates an iterator that moves the progress line forward for each
+     * element.
+     *
+     * @param iterator the iterator that provides the elements.
+     * @param progressLine the progress line that is moved forward.
+     * @since 0.3.0
+     */
+    public ProgressIterator(Iterator<T> iterator, ProgressLine progressLine) {
+        this(iterator, progressLine, 1);
+    }
+
+    /**
+     * Creates an iterator that moves the progress line forward for each batch
+     * of elements.
+     *
+     * @param iterator the iterator that provides the elements.
+     * @param progressLine the progress line that is moved forward.
+     * @param batchSize the number of elements that are reported at once.
+     * @throws IllegalArgumentException if {@code batchSize} is not positive.
+     * @since 0.3.0
+     */
+    public ProgressIterator(
+            Iterator<T> iterator, ProgressLine progressLine, int batchSize) {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException(
+                "You cannot set the batch size to " + batchSize
+                    + " because it must be a positive number.");
+        this.iterator = iterator;
+        this.progressLine = progressLine;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        boolean hasNext = iterator.hasNext();
+        if (!hasNext)
+            reportUnreportedElements();
+        return hasNext;
+    }
+
+    @Override
+    public T next() {
+        T element = iterator.next();
+        if (++unreportedElements == batchSize)
+            reportUnreportedElements();
+        return element;
+    }
+
+    @Override
+    public void remove() {
+        iterator.remove();
+    }
+
+    /**
+     * Moves the progress line forward for the elements that have been
+     * returned by {@link #next()} but not reported yet. Nothing happens if
+     * all elements have been reported.
+     *
+     * @since 0.3.0
+     */
+    @Override
+    public void close() {
+        reportUnreportedElements();
+    }
+
+    private void reportUnreportedElements() {
+        if (unreportedElements > 0) {
+            progressLine.moveForward(unreportedElements);
+            unreportedElements = 0;
+        }
+    }
+}
@@ -2,7 +2,22 @@ package com.github.stefanbirkner.jfortschritt;
 
 import static java.lang.Math.ceil;
 import static java.lang.Math.max;
-import static java.lang.System.out;
+import static java.lang.Math.min;
+import static java.lang.System.lineSeparator;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A progress line shows the progress of a task using a single line on the
@@ -19,41 +34,293 @@ import static java.lang.System.out;
  * <pre>   progressLine.{@link #moveForward()};</pre>
  * <p>and see the result
  * <pre>[==&gt;                                                                   ]</pre>
+ * <p>You can move the progress line forward multiple steps at once, e.g.
+ * after processing a batch of records. The progress line is rendered only
+ * once in this case.
+ * <pre>   progressLine.{@link #moveForward(long) moveForward(10_000)};</pre>
  * <p>This is how a progress line looks like at the end. (It renders a new line
  * character, too. Thus additional text starts at a new line.)
  * <pre>[==================================================================== &gt;]</pre>
  * <p>You may add additional parts to the progress line. E.g. JFortschritt
  * provides a {@link Counter} and a {@link EstimatedTime} component, but you
  * can build your own parts by implementing the interface
- * {@link ProgressLinePart}.
+ * {@link ProgressLinePart}. Parts that implement {@link StepListener} are
+ * informed about every move, e.g. {@link StepLatency}.
  * <pre>ProgressLine progressLine = new ProgressLine(
  * new Counter(), new EstimatedTime());</pre>
  * <p>This is how a progress line looks with the additional parts.
  * <pre>[==&gt;                                                    ] (1/42) eta 10s</pre>
+ * <h2>Output</h2>
+ * <p>A progress line writes to {@code System.out} by default. You can write
+ * it to any other destination by providing a {@link Sink}.
+ * <pre>ProgressLine progressLine = new ProgressLine(
+ * new PrintStreamSink(System.err), new Counter());</pre>
+ * <h2>Redrawing</h2>
+ * <p>The progress line is only redrawn if its text changes. You can reduce
+ * the number of redraws even further by setting a minimum redraw interval.
+ * <pre>   progressLine.{@link #setMinimumRedrawInterval(long, TimeUnit) setMinimumRedrawInterval(50, MILLISECONDS)};</pre>
+ * <p>Then the progress line is redrawn immediately if the progress bar grows
+ * but changes of the additional parts are only shown if the interval has
+ * passed since the last redraw. The final line is always drawn.
+ * <h2>Log files</h2>
+ * <p>Redrawing a line is not possible if the progress line is written to a
+ * log file. Therefore the progress line can write a status line from time to
+ * time instead.
+ * <pre>   progressLine.{@link #setDisplayMode(DisplayMode) setDisplayMode(DisplayMode.LOG)};</pre>
+ * <p>A status line consists of the percentage of completed steps and the
+ * additional parts. E.g.
+ * <pre>40% (4/10) eta 10s</pre>
+ * <p>By default a status line is written whenever the progress grows by ten
+ * percent and at least once a minute if there is any progress. Use
+ * {@link DisplayMode#DETECT} if the progress line should decide whether it
+ * writes to a console or to a log file.
+ * <h2>Unknown number of steps</h2>
+ * <p>The number of steps can be increased while the progress line is
+ * running, e.g. when the next page of a paginated input has been discovered.
+ * <pre>   progressLine.{@link #increaseNumberOfSteps(long) increaseNumberOfSteps(500)};</pre>
+ * <p>If the number of steps is not known at all then start the progress line
+ * without it. It shows a spinner and the additional parts instead of a
+ * progress bar until you set the number of steps or complete it.
+ * <pre>   progressLine.{@link #startWithUnknownNumberOfSteps()};
+ * ...
+ * progressLine.{@link #complete()};</pre>
+ * <h2>Monitoring and resume</h2>
+ * <p>The progress line can publish its state to a memory-mapped file. Other
+ * processes read it with {@link ProgressFile}.
+ * <pre>   progressLine.{@link #publishTo(File) publishTo(new File("job.progress"))};</pre>
+ * <p>A restarted job can continue at the state of the previous run.
+ * <pre>   progressLine.{@link #resumeFrom(File) resumeFrom(new File("job.progress"))};</pre>
+ * <h2>Concurrency</h2>
+ * <p>A progress line can be shared by any number of threads. Moving it
+ * forward does not block. Only one thread at a time renders the progress
+ * line. Other threads that move it forward in the meantime don't wait for
+ * it but skip rendering. The thread that completes the progress line always
+ * renders the final line. The additional parts are only called by the
+ * rendering thread and therefore don't need to be thread-safe. Only
+ * {@link StepListener#movedForward(long)} is called by every thread that
+ * moves the progress line forward.
+ * <p>Rendering still slows down the threads if the sink is slow, e.g. a pipe
+ * to a stalled log shipper. Asynchronous rendering moves it to a thread of
+ * the progress line. Moving forward only wakes up this thread, which renders
+ * the latest state and skips all states in between. Closing the progress
+ * line waits until its last state has been written.
+ * <pre>   try (ProgressLine progressLine = new ProgressLine()) {
+ *     progressLine.{@link #setAsynchronousRendering(boolean) setAsynchronousRendering(true)};
+ *     progressLine.startWithNumberOfSteps(1000);
+ *     ...
+ * }</pre>
  *
  * @since 0.1.0
  */
-public class ProgressLine {
+public class ProgressLine implements Closeable {
+    /**
+     * The number of steps that is reported to the additional parts if the
+     * progress line has been started with an unknown number of steps.
+     *
+     * @see #startWithUnknownNumberOfSteps()
+     * @since 0.3.0
+     */
+    public static final long UNKNOWN_NUMBER_OF_STEPS = -1;
     private static final int WIDTH = 72;
-    private final ProgressLinePart[] additionalParts;
-    private int numberOfSteps;
-    private boolean started = false;
-    private int currentStep = 0;
+    private static final char[] SPINNER = {'|', '/', '-', '\\'};
+    private static final long SPINNER_INTERVAL = 100; //milliseconds
+    private final AppendingProgressLinePart[] additionalParts;
+    private final StepListener[] stepListeners;
+    private final StoppableProgressLinePart[] stoppableParts;
+    private final StringBuilder[] outputOfParts;
+    private final Frame frame = new Frame();
+    private final Frame printedFrame = new Frame();
+    private final Sink sink;
+    private final boolean rendersItself;
+    private final ReentrantLock renderLock = new ReentrantLock();
+    private final ReentrantLock numberOfStepsLock = new ReentrantLock();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final AtomicLong allocatedWeight = new AtomicLong();
+    private final AtomicLong currentStep = new AtomicLong(0);
+    private volatile long numberOfSteps;
+    private volatile boolean numberOfStepsUnknown = false;
+    private volatile long minimumRedrawInterval = 0;
+    private volatile DisplayMode displayMode = DisplayMode.INTERACTIVE;
+    private volatile int logPercentageInterval = 10;
+    private volatile long logTimeInterval = MINUTES.toNanos(1);
+    private volatile boolean log;
+    private volatile ProgressFileWriter progressFile;
+    private volatile StallWatchdog watchdog;
+    private volatile boolean asynchronousRendering = false;
+    private volatile AsynchronousRenderer asynchronousRenderer;
+    private volatile String nameOfMBean;
+    private volatile long startTime;
+    //the following fields are only written by the rendering thread, but read
+    //by every thread that moves the progress line forward.
+    private volatile long timeOfLastRedraw;
+    private volatile int lengthOfFinalPart;
+    private volatile int numberOfEqualSigns;
+    private volatile long stepOfLastLogLine;
+    private volatile int percentageOfLastLogLine;
+    private volatile boolean partsStarted = false; //is written under renderLock
+    private boolean finalFramePrinted = false; //guarded by renderLock
+    private boolean partsStopped = false; //guarded by renderLock
+    private long timeOfSpinnerStart; //guarded by renderLock
 
     /**
      * Create a progress line with a progress bar and an additional
      * {@link ProgressLinePart}s. These parts are rendered after the the
-     * progress bar and are separated by a whitespace.
+     * progress bar and are separated by a whitespace. The progress line is
+     * written to {@code System.out}.
      * @param additionalParts additional parts that are rendered after
      *                        the progress bar.
      */
     public ProgressLine(ProgressLinePart... additionalParts) {
-        this.additionalParts = additionalParts;
+        this(new StandardOutputSink(), additionalParts);
+    }
+
+    /**
+     * Create a progress line with a progress bar and an additional
+     * {@link ProgressLinePart}s that is written to the given {@link Sink}.
+     * The parts are rendered after the the progress bar and are separated by
+     * a whitespace.
+     * @param sink the destination of the progress line.
+     * @param additionalParts additional parts that are rendered after
+     *                        the progress bar.
+     * @since 0.3.0
+     */
+    public ProgressLine(Sink sink, ProgressLinePart... additionalParts) {
+        this(true, sink, additionalParts);
+    }
+
+    //is used by MultiProgressLine for progress lines that it renders.
+    ProgressLine(boolean rendersItself, Sink sink, ProgressLinePart... additionalParts) {
+        this.rendersItself = rendersItself;
+        this.sink = sink;
+        this.additionalParts = adapt(additionalParts);
+        this.stepListeners = stepListenersOf(additionalParts);
+        this.stoppableParts = stoppablePartsOf(additionalParts);
+        this.outputOfParts = new StringBuilder[additionalParts.length];
+        for (int i = 0; i < additionalParts.length; ++i)
+            outputOfParts[i] = new StringBuilder();
+    }
+
+    private static AppendingProgressLinePart[] adapt(ProgressLinePart[] parts) {
+        AppendingProgressLinePart[] adaptedParts
+            = new AppendingProgressLinePart[parts.length];
+        for (int i = 0; i < parts.length; ++i)
+            if (parts[i] instanceof AppendingProgressLinePart)
+                adaptedParts[i] = (AppendingProgressLinePart) parts[i];
+            else if (parts[i] instanceof LongProgressLinePart)
+                adaptedParts[i] = new AppendingProgressLinePartAdapter(
+                    (LongProgressLinePart) parts[i]);
+            else
+                adaptedParts[i] = new AppendingProgressLinePartAdapter(
+                    new IntProgressLinePartAdapter(parts[i]));
+        return adaptedParts;
+    }
+
+    private static StepListener[] stepListenersOf(ProgressLinePart[] parts) {
+        List<StepListener> listeners = new ArrayList<>();
+        for (ProgressLinePart part : parts)
+            if (part instanceof StepListener)
+                listeners.add((StepListener) part);
+        return listeners.toArray(new StepListener[listeners.size()]);
+    }
+
+    private static StoppableProgressLinePart[] stoppablePartsOf(ProgressLinePart[] parts) {
+        List<StoppableProgressLinePart> stoppableParts = new ArrayList<>();
+        for (ProgressLinePart part : parts)
+            if (part instanceof StoppableProgressLinePart)
+                stoppableParts.add((StoppableProgressLinePart) part);
+        return stoppableParts.toArray(
+            new StoppableProgressLinePart[stoppableParts.size()]);
+    }
+
+    /**
+     * Set the minimum time between two redraws that are only caused by
+     * changes of the additional parts. The progress line is still redrawn
+     * immediately if the progress bar grows or if it is complete. The
+     * default interval is zero, i.e. every change is shown immediately.
+     *
+     * @param interval the minimum time between two redraws.
+     * @param unit the unit of {@code interval}.
+     * @throws IllegalArgumentException if {@code interval} is negative.
+     * @since 0.3.0
+     */
+    public void setMinimumRedrawInterval(long interval, TimeUnit unit) {
+        if (interval < 0)
+            throw new IllegalArgumentException(
+                "You cannot set the minimum redraw interval to " + interval
+                    + " because it must be a non-negative number.");
+        this.minimumRedrawInterval = unit.toNanos(interval);
+    }
+
+    /**
+     * Set the way how the progress line is written to its sink. The default
+     * mode is {@link DisplayMode#INTERACTIVE}. The mode must be set before
+     * the progress line is started.
+     *
+     * @param displayMode the way how the progress line is written.
+     * @since 0.3.0
+     */
+    public void setDisplayMode(DisplayMode displayMode) {
+        this.displayMode = displayMode;
+    }
+
+    /**
+     * Set the growth of the progress in percent after which a new status
+     * line is written in {@link DisplayMode#LOG log mode}. The default is ten
+     * percent.
+     *
+     * @param percentage the growth of the progress in percent.
+     * @throws IllegalArgumentException if {@code percentage} is not between
+     *                                  1 and 100.
+     * @since 0.3.0
+     */
+    public void setLogPercentageInterval(int percentage) {
+        if (percentage < 1 || percentage > 100)
+            throw new IllegalArgumentException(
+                "You cannot set the log percentage interval to " + percentage
+                    + " because it must be between 1 and 100.");
+        this.logPercentageInterval = percentage;
+    }
+
+    /**
+     * Set the time after which a new status line is written in
+     * {@link DisplayMode#LOG log mode} if there is any progress. The default
+     * is one minute.
+     *
+     * @param interval the time between two status lines.
+     * @param unit the unit of {@code interval}.
+     * @throws IllegalArgumentException if {@code interval} is not positive.
+     * @since 0.3.0
+     */
+    public void setLogTimeInterval(long interval, TimeUnit unit) {
+        if (interval <= 0)
+            throw new IllegalArgumentException(
+                "You cannot set the log time interval to " + interval
+                    + " because it must be a positive number.");
+        this.logTimeInterval = unit.toNanos(interval);
+    }
+
+    /**
+     * Render the progress line by its own thread, so that threads that move
+     * it forward never wait for the sink. The thread only renders the latest
+     * state and skips states that have been reached while it was writing to
+     * the sink. It stops after it rendered the final line. Call
+     * {@link #close()} if the task ends before the progress line is
+     * complete. The thread is a daemon thread, but the last state is still
+     * written when the JVM shuts down. By default the progress line is
+     * rendered by the threads that move it forward. Asynchronous rendering
+     * must be set before the progress line is started.
+     *
+     * @param asynchronousRendering whether the progress line is rendered by
+     *                              its own thread.
+     * @since 0.3.0
+     */
+    public void setAsynchronousRendering(boolean asynchronousRendering) {
+        this.asynchronousRendering = asynchronousRendering;
     }
 
     /**
      * Start the progress bar. This immediately prints an empty progress bar to
-     * {@code System.in}. The progress bar can only be started once.
+     * the sink. The progress bar can only be started once.
      *
      * @param numberOfSteps the number of steps that is needed for the progress
      *                      bar to be complete.
@@ -63,96 +330,934 @@ public class ProgressLine {
      * @since 0.2.0
      */
     public void startWithNumberOfSteps(int numberOfSteps) throws IllegalStateException {
+        startWithNumberOfSteps((long) numberOfSteps);
+    }
+
+    /**
+     * Start the progress bar. This immediately prints an empty progress bar to
+     * the sink. The progress bar can only be started once.
+     *
+     * @param numberOfSteps the number of steps that is needed for the progress
+     *                      bar to be complete.
+     * @throws IllegalArgumentException if {@code numberOfSteps} is negative.
+     * @throws IllegalStateException if the progress bar has already
+     *                               been started.
+     * @since 0.3.0
+     */
+    public void startWithNumberOfSteps(long numberOfSteps) throws IllegalStateException {
         assertNonNegativeNumberOfSteps(numberOfSteps);
+        start(numberOfSteps, numberOfSteps, null);
+    }
+
+    /**
+     * Start the progress line without knowing the number of steps. It shows
+     * a spinner and the additional parts instead of a progress bar. The
+     * spinner turns every 100 milliseconds when the progress line is
+     * redrawn. The
+     * additional parts are started with {@link #UNKNOWN_NUMBER_OF_STEPS}.
+     * Use {@link #setNumberOfSteps(long)} as soon as the number of steps is
+     * known or {@link #complete()} when the task is finished. The progress
+     * line can only be started once.
+     *
+     * @throws IllegalStateException if the progress line has already
+     *                               been started.
+     * @since 0.3.0
+     */
+    public void startWithUnknownNumberOfSteps() throws IllegalStateException {
+        start(Long.MAX_VALUE, UNKNOWN_NUMBER_OF_STEPS, null);
+    }
+
+    /**
+     * Publish the state of the progress line to a memory-mapped file, so
+     * that it can be read by other processes with {@link ProgressFile}. The
+     * file is updated whenever the progress line is rendered. Updating it
+     * needs no system call. The file must be set before the progress line is
+     * started.
+     *
+     * @param file the file that the state is written to. It is created if
+     *             it does not exist.
+     * @throws IOException if the file cannot be mapped to memory.
+     * @since 0.3.0
+     */
+    public void publishTo(File file) throws IOException {
+        this.progressFile = new ProgressFileWriter(file);
+    }
+
+    /**
+     * Watch the progress line for stalls. The watchdog starts watching when
+     * the progress line is started. It must be set before the progress line
+     * is started.
+     *
+     * @param watchdog the watchdog that detects stalls.
+     * @throws IllegalStateException if the watchdog already watches another
+     *                               progress line.
+     * @see StallWatchdog
+     * @since 0.3.0
+     */
+    public void setStallWatchdog(StallWatchdog watchdog) {
+        watchdog.watch(this);
+        this.watchdog = watchdog;
+    }
+
+    /**
+     * Register the progress line as an MBean at the platform MBean server
+     * while it is running. It is registered when it is started and
+     * unregistered when it is complete. The attributes of the MBean are
+     * read without locking the progress line. The name must be set before
+     * the progress line is started. The progress line runs without an MBean
+     * if the MBean cannot be registered, e.g. because another running
+     * progress line has the same name.
+     *
+     * @param name the name of the progress line that is part of the object
+     *             name of the MBean.
+     * @see ProgressLineRegistry
+     * @see ProgressLineMXBean
+     * @since 0.3.0
+     */
+    public void registerMBean(String name) {
+        ProgressLineRegistry.getObjectName(name);
+        this.nameOfMBean = name;
+    }
+
+    /**
+     * Returns whether the {@link StallWatchdog} of this progress line
+     * detected a stall and did not see the progress line move forward since
+     * then.
+     *
+     * @return {@code true} if the progress line is stalled.
+     * @since 0.3.0
+     */
+    public boolean isStalled() {
+        StallWatchdog watchdog = this.watchdog;
+        return watchdog != null && watchdog.isStalled();
+    }
+
+    /**
+     * Start the progress line at the state that has been published to a
+     * file by a previous run. The progress line continues with the number
+     * of steps and the current step of the previous run. Parts that
+     * implement {@link ResumableProgressLinePart}, like {@link EstimatedTime},
+     * continue with the time that the previous run needed. Call
+     * {@link #publishTo(File)} with the same file before, if the progress
+     * line should continue to publish its state to it. The progress line is
+     * started with an unknown number of steps if there is no previous run,
+     * i.e. if the file does not exist or no state has been published to it.
+     *
+     * @param file the file that the previous run published its state to.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalStateException if the progress line has already
+     *                               been started.
+     * @since 0.3.0
+     */
+    public void resumeFrom(File file) throws IOException {
+        resumeFrom(file, UNKNOWN_NUMBER_OF_STEPS);
+    }
+
+    /**
+     * Start the progress line at the state that has been published to a
+     * file by a previous run or with the given number of steps if there is
+     * no previous run, i.e. if the file does not exist or no state has been
+     * published to it.
+     * <pre>   progressLine.publishTo(file);
+     * progressLine.resumeFrom(file, 1000);</pre>
+     *
+     * @param file the file that the previous run published its state to.
+     * @param numberOfSteps the number of steps if there is no previous run.
+     *                      {@link #UNKNOWN_NUMBER_OF_STEPS} starts the
+     *                      progress line with an unknown number of steps.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if {@code numberOfSteps} is negative.
+     * @throws IllegalStateException if the progress line has already
+     *                               been started.
+     * @see #resumeFrom(File)
+     * @since 0.3.0
+     */
+    public void resumeFrom(File file, long numberOfSteps) throws IOException {
+        if (numberOfSteps != UNKNOWN_NUMBER_OF_STEPS)
+            assertNonNegativeNumberOfSteps(numberOfSteps);
+        ProgressSnapshot snapshot = ProgressFile.readIfPublished(file);
+        if (snapshot == null) {
+            if (numberOfSteps == UNKNOWN_NUMBER_OF_STEPS)
+                startWithUnknownNumberOfSteps();
+            else
+                startWithNumberOfSteps(numberOfSteps);
+        } else if (snapshot.getNumberOfSteps() == UNKNOWN_NUMBER_OF_STEPS) {
+            start(Long.MAX_VALUE, UNKNOWN_NUMBER_OF_STEPS, snapshot);
+        } else {
+            start(snapshot.getNumberOfSteps(), snapshot.getNumberOfSteps(), snapshot);
+        }
+    }
+
+    private void start(long numberOfSteps, long numberOfStepsForParts,
+            ProgressSnapshot previousRun) {
         assertNotAlreadyStarted();
         this.numberOfSteps = numberOfSteps;
-        started = true;
-        informCounterAboutStart(numberOfSteps);
-        printProgressBar();
+        this.numberOfStepsUnknown = numberOfStepsForParts == UNKNOWN_NUMBER_OF_STEPS;
+        this.log = isLogNeeded();
+        if (asynchronousRendering && rendersItself)
+            asynchronousRenderer = new AsynchronousRenderer();
+        renderLock.lock();
+        try {
+            long step = 0;
+            long elapsedTime = 0;
+            if (previousRun != null) {
+                step = previousRun.getCurrentStep();
+                elapsedTime = previousRun.getElapsedTime();
+            }
+            currentStep.set(step);
+            startTime = System.currentTimeMillis() - elapsedTime;
+            timeOfSpinnerStart = getTime();
+            informPartsAboutStart(numberOfStepsForParts, step, elapsedTime);
+            partsStarted = true;
+            if (rendersItself) {
+                frame.clear();
+                if (log)
+                    appendLogLine(step);
+                else
+                    appendProgressBar(step);
+                print();
+            }
+            publish(step);
+            timeOfLastRedraw = nanoTime();
+            //the final frame of a progress line that is complete at start is
+            //never rendered, so that it would never be unregistered.
+            String nameOfMBean = this.nameOfMBean;
+            if (nameOfMBean != null && step < numberOfSteps)
+                ProgressLineRegistry.register(nameOfMBean, this);
+        } finally {
+            renderLock.unlock();
+        }
+        AsynchronousRenderer asynchronousRenderer = this.asynchronousRenderer;
+        if (asynchronousRenderer != null)
+            asynchronousRenderer.start();
+        StallWatchdog watchdog = this.watchdog;
+        if (watchdog != null)
+            watchdog.start();
+    }
+
+    private boolean isLogNeeded() {
+        switch (displayMode) {
+            case LOG:
+                return true;
+            case DETECT:
+                return !isConsole();
+            default:
+                return false;
+        }
+    }
+
+    private boolean isConsole() {
+        return sink instanceof PrintStreamSink
+            && ((PrintStreamSink) sink).writesToStandardStream()
+            && System.console() != null;
+    }
+
+    private void informPartsAboutStart(long numberOfSteps, long step, long elapsedTime) {
+        for (AppendingProgressLinePart part : additionalParts)
+            if (step > 0 && part instanceof ResumableProgressLinePart)
+                ((ResumableProgressLinePart) part).progressLineResumed(
+                    numberOfSteps, step, elapsedTime);
+            else
+                part.progressLineStarted(numberOfSteps);
     }
 
-    private void informCounterAboutStart(int numberOfSteps) {
-        for (ProgressLinePart part : additionalParts)
-            part.progressLineStarted(numberOfSteps);
+    /**
+     * Set the number of steps of a running progress line. The number of
+     * steps can only grow. A progress line with an unknown number of steps
+     * shows a progress bar afterwards. The additional parts are informed by
+     * {@link LongProgressLinePart#numberOfStepsChanged(long)}.
+     *
+     * @param numberOfSteps the new number of steps.
+     * @throws IllegalArgumentException if {@code numberOfSteps} is less than
+     *                                  the current number of steps or the
+     *                                  current step.
+     * @throws IllegalStateException if the progress line has not been
+     *                               started or is already complete.
+     * @since 0.3.0
+     */
+    public void setNumberOfSteps(long numberOfSteps) {
+        ReentrantLock lock = lockForNumberOfSteps();
+        lock.lock();
+        try {
+            assertRunning();
+            long step = currentStep.get();
+            if (numberOfSteps < step)
+                throw new IllegalArgumentException(
+                    "You cannot set the number of steps to " + numberOfSteps
+                        + " because it must not be less than the current step "
+                        + step + ".");
+            if (!numberOfStepsUnknown && numberOfSteps < this.numberOfSteps)
+                throw new IllegalArgumentException(
+                    "You cannot set the number of steps to " + numberOfSteps
+                        + " because it must not be less than the current number of steps "
+                        + this.numberOfSteps + ".");
+            changeNumberOfSteps(numberOfSteps);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Increase the number of steps of a running progress line by {@code n}.
+     *
+     * @param n the number of additional steps.
+     * @throws IllegalArgumentException if {@code n} is negative.
+     * @throws IllegalStateException if the progress line has not been
+     *                               started, has an unknown number of steps
+     *                               or is already complete.
+     * @since 0.3.0
+     */
+    public void increaseNumberOfSteps(long n) {
+        if (n < 0)
+            throw new IllegalArgumentException(
+                "You cannot increase the number of steps by " + n
+                    + " because it must be a non-negative number.");
+        ReentrantLock lock = lockForNumberOfSteps();
+        lock.lock();
+        try {
+            assertRunning();
+            if (numberOfStepsUnknown)
+                throw new IllegalStateException(
+                    "The number of steps cannot be increased because it is unknown.");
+            changeNumberOfSteps(numberOfSteps + n);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Complete a progress line that has been started with an unknown number
+     * of steps. The current step becomes the number of steps and the final
+     * line is rendered.
+     *
+     * @throws IllegalStateException if the progress line has not been
+     *                               started with an unknown number of steps
+     *                               or is already complete.
+     * @since 0.3.0
+     */
+    public void complete() {
+        ReentrantLock lock = lockForNumberOfSteps();
+        lock.lock();
+        try {
+            assertRunning();
+            if (!numberOfStepsUnknown)
+                throw new IllegalStateException(
+                    "Only a progress line with an unknown number of steps can be completed explicitly.");
+            changeNumberOfSteps(currentStep.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockForNumberOfSteps() {
+        //the thread that renders asynchronously holds the renderLock while
+        //it writes to the sink. Changes of the number of steps must not wait
+        //for it, because they are rendered by that thread anyway.
+        if (asynchronousRenderer != null)
+            return numberOfStepsLock;
+        else
+            return renderLock;
+    }
+
+    private void changeNumberOfSteps(long numberOfSteps) {
+        this.numberOfSteps = numberOfSteps;
+        numberOfStepsUnknown = false;
+        AsynchronousRenderer asynchronousRenderer = this.asynchronousRenderer;
+        if (asynchronousRenderer != null) {
+            asynchronousRenderer.numberOfStepsChanged();
+            return;
+        }
+        informPartsAboutNumberOfSteps(numberOfSteps);
+        long step = getCurrentStep();
+        if (step == numberOfSteps)
+            renderFinalFrame();
+        else if (rendersItself && !log)
+            renderFrame(step);
+    }
+
+    private void informPartsAboutNumberOfSteps(long numberOfSteps) {
+        for (AppendingProgressLinePart part : additionalParts)
+            part.numberOfStepsChanged(numberOfSteps);
     }
 
     /**
      * Move the progress bar one step forward. This overrides the current
-     * progress bar at {@code System.in} with the new one.
+     * progress bar at the sink with the new one.
      *
      * @throws IllegalStateException if the progress bar is already complete.
      * @since 0.1.0
      */
     public void moveForward() throws IllegalStateException {
-        assertNotAlreadyComplete();
-        ++currentStep;
+        long step;
+        do {
+            step = currentStep.get() + 1;
+            assertNotAlreadyComplete(step);
+        } while (!currentStep.compareAndSet(step - 1, step));
+        informListenersAboutMove(1);
+        render(step);
+    }
+
+    /**
+     * Move the progress bar {@code n} steps forward and render it once. The
+     * progress bar is not moved at all if it would move beyond its end.
+     *
+     * @param n the number of steps.
+     * @throws IllegalArgumentException if {@code n} is negative.
+     * @throws IllegalStateException if the progress bar would move beyond
+     *                               its end.
+     * @since 0.3.0
+     */
+    public void moveForward(long n) throws IllegalStateException {
+        if (n < 0)
+            throw new IllegalArgumentException(
+                "You cannot move forward " + n
+                    + " steps because it must be a non-negative number.");
+        long step;
+        do {
+            step = currentStep.get();
+            assertEnoughStepsLeft(step, n);
+        } while (!currentStep.compareAndSet(step, step + n));
+        if (n > 0) {
+            informListenersAboutMove(n);
+            render(step + n);
+        }
+    }
+
+    /**
+     * Move the progress bar forward to the given step and render it once.
+     * Nothing happens if the progress bar is already at or beyond this step.
+     * This allows concurrent threads to report their progress without
+     * coordination.
+     *
+     * @param step the new step.
+     * @throws IllegalArgumentException if {@code step} is negative or
+     *                                  greater than the number of steps.
+     * @since 0.3.0
+     */
+    public void setProgress(long step) {
+        if (step < 0 || step > numberOfSteps)
+            throw new IllegalArgumentException(
+                "You cannot set the progress to " + step
+                    + " because it must be between 0 and the number of steps "
+                    + numberOfSteps + ".");
+        long currentValue;
+        do {
+            currentValue = currentStep.get();
+            if (currentValue >= step)
+                return;
+        } while (!currentStep.compareAndSet(currentValue, step));
+        informListenersAboutMove(step - currentValue);
+        render(step);
+    }
+
+    /**
+     * Creates a sub progress for a part of the task that has its own number
+     * of steps. The sub progress moves this progress line forward by its
+     * weight when it is complete and proportionally before. The progress line
+     * must be started before sub progresses can be created.
+     *
+     * @param weight the number of steps of this progress line that the sub
+     *               progress is worth.
+     * @param numberOfSteps the number of steps of the sub progress.
+     * @return the new sub progress.
+     * @throws IllegalArgumentException if {@code weight} or
+     *                                  {@code numberOfSteps} is negative.
+     * @throws IllegalStateException if the weight exceeds the steps that are
+     *                               not assigned to other sub progresses.
+     * @see SubProgress
+     * @since 0.3.0
+     */
+    public SubProgress createSubProgress(long weight, long numberOfSteps) {
+        SubProgress.allocateWeight(
+            allocatedWeight, weight, this.numberOfSteps, numberOfSteps);
+        return new SubProgress(this, null, weight, numberOfSteps);
+    }
+
+    private void informListenersAboutMove(long n) {
+        for (StepListener listener : stepListeners)
+            listener.movedForward(n);
+    }
+
+    private void render(long step) {
+        AsynchronousRenderer asynchronousRenderer = this.asynchronousRenderer;
+        if (asynchronousRenderer != null)
+            asynchronousRenderer.wakeUp();
+        else if (step == numberOfSteps)
+            renderFinalFrame();
+        else if (rendersItself)
+            renderFrameUnlessAnotherThreadRenders(step);
+    }
+
+    //returns false if the line is not complete anymore.
+    private boolean renderFinalFrame() {
+        renderLock.lock();
+        try {
+            //the number of steps may have been changed by another thread while
+            //this thread waited for the lock. Either that thread already
+            //rendered the final frame or the line is not complete anymore.
+            if (finalFramePrinted)
+                return true;
+            long step = getCurrentStep();
+            if (step != numberOfSteps)
+                return false;
+            finalFramePrinted = true;
+            if (rendersItself)
+                renderFrame(step);
+            stopParts();
+            if (nameOfMBean != null)
+                ProgressLineRegistry.unregister(this);
+            return true;
+        } finally {
+            renderLock.unlock();
+        }
+    }
+
+    private void renderFrameUnlessAnotherThreadRenders(long step) {
+        //check before acquiring the lock, so that threads don't compete for
+        //the lock if no redraw is needed.
+        if (renderLock.isLocked() || !isRedrawNeeded(step))
+            return;
+        if (renderLock.tryLock()) {
+            try {
+                step = currentStep.get();
+                //the thread that completes the progress line renders the
+                //final frame.
+                if (step < numberOfSteps && isRedrawNeeded(step))
+                    renderFrame(step);
+            } finally {
+                renderLock.unlock();
+            }
+        }
+    }
+
+    private boolean isRedrawNeeded(long step) {
+        if (log)
+            return isLogLineNeeded(step);
+        long interval = minimumRedrawInterval;
+        return interval == 0
+            || nanoTime() - timeOfLastRedraw >= interval
+            || (!numberOfStepsUnknown
+                && calculateNumberOfEqualSigns(step, lengthOfFinalPart) != numberOfEqualSigns);
+    }
+
+    private boolean isLogLineNeeded(long step) {
+        int interval = logPercentageInterval;
+        return calculatePercentage(step) / interval > percentageOfLastLogLine / interval
+            || (step != stepOfLastLogLine
+                && nanoTime() - timeOfLastRedraw >= logTimeInterval);
+    }
+
+    private void renderFrame(long step) {
+        if (log)
+            renderLogLine(step);
+        else
+            renderProgressBar(step);
+        publish(step);
+    }
+
+    private void publish(long step) {
+        ProgressFileWriter progressFile = this.progressFile;
+        if (progressFile != null)
+            progressFile.write(
+                numberOfStepsUnknown ? UNKNOWN_NUMBER_OF_STEPS : numberOfSteps,
+                step, startTime);
+    }
+
+    private void renderLogLine(long step) {
+        frame.clear();
+        appendLogLine(step);
+        print();
+        timeOfLastRedraw = nanoTime();
+    }
+
+    private void appendLogLine(long step) {
+        stepOfLastLogLine = step;
+        percentageOfLastLogLine = calculatePercentage(step);
+        if (numberOfStepsUnknown) {
+            frame.append(Long.toString(step));
+            frame.append(" steps");
+        } else {
+            frame.append(Integer.toString(percentageOfLastLogLine));
+            frame.append('%');
+        }
+        determineOutputOfParts(step);
+        appendOutputOfParts();
+        frame.append(lineSeparator());
+    }
+
+    private int calculatePercentage(long step) {
+        if (step == numberOfSteps)
+            return 100;
+        else
+            return (int) (100d * step / numberOfSteps);
+    }
+
+    /**
+     * Appends the current progress bar without a carriage return and without
+     * a new line character to the target. Nothing is appended if the progress
+     * line has not been started.
+     */
+    void appendProgressBarTo(Frame target) {
+        renderLock.lock();
+        try {
+            frame.clear();
+            if (partsStarted) {
+                long step = getCurrentStep();
+                appendProgressBar(step);
+                publish(step);
+            }
+            target.append(frame);
+        } finally {
+            renderLock.unlock();
+        }
+    }
+
+    private void renderProgressBar(long step) {
+        frame.clear();
         deleteCurrentProgressBar();
-        printProgressBar();
-        printNewLineIfComplete();
+        appendProgressBar(step);
+        appendNewLineIfComplete(step);
+        if (step == numberOfSteps || !frame.hasSameContentAs(printedFrame)) {
+            print();
+            timeOfLastRedraw = nanoTime();
+        }
     }
 
     private void deleteCurrentProgressBar() {
-        out.print("\r");
+        frame.append('\r');
+    }
+
+    private void appendProgressBar(long step) {
+        if (numberOfStepsUnknown) {
+            appendSpinner(step);
+            return;
+        }
+        lengthOfFinalPart = 1 /* closing ']' */ + determineOutputOfParts(step);
+        numberOfEqualSigns = calculateNumberOfEqualSigns(step, lengthOfFinalPart);
+        frame.append('[');
+        frame.append('=', numberOfEqualSigns);
+        frame.append('>');
+        frame.append(' ', WIDTH - numberOfEqualSigns - 2 - lengthOfFinalPart);
+        frame.append(']');
+        appendOutputOfParts();
+    }
+
+    private void appendSpinner(long step) {
+        int lengthOfParts = determineOutputOfParts(step);
+        //the spinner turns with the time and not with every frame, so that
+        //frames without new output are equal and not written to the sink.
+        long turns = (getTime() - timeOfSpinnerStart) / SPINNER_INTERVAL;
+        frame.append(SPINNER[(int) (turns % SPINNER.length)]);
+        appendOutputOfParts();
+        frame.append(' ', WIDTH - 1 - lengthOfParts);
     }
 
-    private void printProgressBar() {
-        String finalPart = "]" + getOutputForParts();
-        int numberOfEqualSigns = calculateNumberOfEqualSigns(finalPart);
-        out.print("[");
-        printCharNTimes('=', numberOfEqualSigns);
-        out.print(">");
-        printCharNTimes(' ', WIDTH - numberOfEqualSigns - 2 - finalPart.length());
-        out.print(finalPart);
+    private int determineOutputOfParts(long step) {
+        int length = 0;
+        for (int i = 0; i < additionalParts.length; ++i) {
+            //the output of the last frame is reused if it did not change.
+            if (additionalParts[i].isOutputChanged(step)) {
+                outputOfParts[i].setLength(0);
+                additionalParts[i].appendOutputForStep(step, outputOfParts[i]);
+            }
+            length += 1 /* separating whitespace */ + outputOfParts[i].length();
+        }
+        return length;
     }
 
+    private void appendOutputOfParts() {
+        for (StringBuilder output : outputOfParts) {
+            frame.append(' ');
+            frame.append(output);
+        }
+    }
+
+    /**
+     * Returns the output of the additional parts for the current step. Each
+     * output is preceded by a whitespace. The parts are called while the
+     * progress line is locked for rendering, because they don't need to be
+     * thread-safe.
+     *
+     * @return the output of the additional parts.
+     */
     public String getOutputForParts() {
-        StringBuilder output = new StringBuilder();
-        for (ProgressLinePart part : additionalParts)
-            output.append(" ").append(part.getOutputForStep(currentStep));
-        return output.toString();
+        renderLock.lock();
+        try {
+            determineOutputOfParts(getCurrentStep());
+            StringBuilder output = new StringBuilder();
+            for (StringBuilder outputOfPart : outputOfParts)
+                output.append(' ').append(outputOfPart);
+            return output.toString();
+        } finally {
+            renderLock.unlock();
+        }
     }
 
-    private int calculateNumberOfEqualSigns(String finalPart) {
+    private int calculateNumberOfEqualSigns(long step, int lengthOfFinalPart) {
         int maxNumberOfEqualSigns
-            = WIDTH - finalPart.length() - 2 /* starting '[' and arrow '>' */;
-        if (isComplete())
+            = WIDTH - lengthOfFinalPart - 2 /* starting '[' and arrow '>' */;
+        if (step == numberOfSteps)
             return maxNumberOfEqualSigns;
         else
             return (int) ceil(
-                currentStep * (maxNumberOfEqualSigns - 1)
+                (double) step * (maxNumberOfEqualSigns - 1)
                     / max(numberOfSteps - 1, 1d));
     }
 
-    private void printCharNTimes(char c, int n) {
-        for (int i = 0; i < n; ++i)
-            out.print(c);
+    private void appendNewLineIfComplete(long step) {
+        if (step == numberOfSteps)
+            frame.append(lineSeparator());
+    }
+
+    private void print() {
+        sink.write(frame.chars(), frame.length());
+        printedFrame.copyFrom(frame);
+    }
+
+    /**
+     * Returns whether the progress line has been started.
+     *
+     * @return {@code true} if the progress line has been started.
+     * @since 0.3.0
+     */
+    public boolean isStarted() {
+        return partsStarted;
+    }
+
+    /**
+     * Returns the current state of the progress line. Taking a snapshot
+     * does not lock the progress line and can be done by any thread.
+     *
+     * @return the current state of the progress line.
+     * @throws IllegalStateException if the progress line has not been
+     *                               started.
+     * @see ProgressPublisher
+     * @since 0.3.0
+     */
+    public ProgressSnapshot getSnapshot() {
+        if (!partsStarted)
+            throw new IllegalStateException(
+                "A snapshot cannot be taken because the progress line has not been started.");
+        long time = System.currentTimeMillis();
+        long step = getCurrentStep();
+        long startTime = this.startTime;
+        return new ProgressSnapshot(
+            numberOfStepsUnknown ? UNKNOWN_NUMBER_OF_STEPS : numberOfSteps,
+            step, startTime, time, 1000d * step / max(1, time - startTime));
+    }
+
+    /**
+     * Waits until the thread that renders the progress line asynchronously
+     * has written the last state of the progress line. The last line is
+     * terminated by a new line, even if the progress line is not complete.
+     * The progress line is not rendered anymore afterwards.
+     * <p>Closing a progress line that is not complete also stops its parts
+     * that implement {@link StoppableProgressLinePart}, e.g. the background
+     * thread of {@link JvmResources}. This is the only effect of closing a
+     * progress line that is not rendered asynchronously.
+     *
+     * @see #setAsynchronousRendering(boolean)
+     * @since 0.3.0
+     */
+    @Override
+    public void close() {
+        AsynchronousRenderer asynchronousRenderer = this.asynchronousRenderer;
+        if (asynchronousRenderer != null)
+            asynchronousRenderer.close();
+        renderLock.lock();
+        try {
+            stopParts();
+        } finally {
+            renderLock.unlock();
+        }
+    }
+
+    //is called under renderLock.
+    private void stopParts() {
+        if (partsStopped)
+            return;
+        partsStopped = true;
+        for (StoppableProgressLinePart part : stoppableParts)
+            part.progressLineStopped();
     }
 
-    private void printNewLineIfComplete() {
-        if (isComplete())
-            out.println();
+    //is used to override time in tests.
+    long getTime() {
+        return NANOSECONDS.toMillis(nanoTime());
     }
 
-    private boolean isComplete() {
-        return currentStep == numberOfSteps;
+    private long getCurrentStep() {
+        //the counter exceeds the number of steps if a thread tried to move
+        //forward a complete progress line.
+        return min(currentStep.get(), numberOfSteps);
     }
 
     private void assertNotAlreadyStarted() throws IllegalStateException {
-        if (started)
+        if (!started.compareAndSet(false, true))
             throw new IllegalStateException(
                 "The progress bar has already been started and cannot be started twice.");
     }
 
-    private void assertNonNegativeNumberOfSteps(int numberOfSteps) {
+    private void assertRunning() throws IllegalStateException {
+        if (!partsStarted)
+            throw new IllegalStateException(
+                "The number of steps cannot be changed because the progress line has not been started.");
+        if (!numberOfStepsUnknown && currentStep.get() >= numberOfSteps)
+            throw new IllegalStateException(
+                "The number of steps cannot be changed because the progress line is already complete.");
+    }
+
+    private void assertNonNegativeNumberOfSteps(long numberOfSteps) {
         if (numberOfSteps < 0)
             throw new IllegalArgumentException(
                 "You cannot set number of steps to " + numberOfSteps
                     + " because it must be a non-negative number.");
     }
 
-    private void assertNotAlreadyComplete() throws IllegalStateException {
-        if (isComplete())
+    private void assertEnoughStepsLeft(long step, long n) throws IllegalStateException {
+        if (step + n > numberOfSteps)
+            throw new IllegalStateException(
+                "The progress cannot be moved forward " + n
+                    + " steps because only " + (numberOfSteps - min(step, numberOfSteps))
+                    + " steps are left.");
+    }
+
+    private void assertNotAlreadyComplete(long step) throws IllegalStateException {
+        if (step > numberOfSteps)
             throw new IllegalStateException(
                 "The progress cannot be moved forward because it is already complete.");
     }
+
+    /**
+     * Renders the progress line by its own thread. The thread parks while
+     * there is no new state and is woken up by the threads that move the
+     * progress line forward. A wake up only costs an unpark if the thread
+     * actually waits.
+     */
+    private class AsynchronousRenderer implements Runnable {
+        private final Thread thread;
+        private final Thread shutdownHook;
+        private volatile boolean waiting = false;
+        private volatile boolean closed = false;
+        //the step that has been evaluated last. It is reset to -1 if the
+        //number of steps changes, so that the line is evaluated again.
+        private volatile long evaluatedStep = -1;
+        //the parts are only called by the thread of the renderer. Therefore
+        //it tells them about a new number of steps.
+        private long numberOfStepsOfParts = numberOfSteps; //guarded by renderLock
+
+        AsynchronousRenderer() {
+            thread = new Thread(this, "jfortschritt-async-renderer");
+            thread.setDaemon(true);
+            shutdownHook = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    close();
+                }
+            }, "jfortschritt-async-renderer-shutdown");
+        }
+
+        void start() {
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+            thread.start();
+        }
+
+        void wakeUp() {
+            if (waiting)
+                LockSupport.unpark(thread);
+        }
+
+        void numberOfStepsChanged() {
+            evaluatedStep = -1;
+            LockSupport.unpark(thread);
+        }
+
+        void close() {
+            closed = true;
+            LockSupport.unpark(thread);
+            if (Thread.currentThread() == thread)
+                return;
+            boolean interrupted = false;
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (renderLatestState())
+                    awaitChange();
+            } finally {
+                removeShutdownHook();
+            }
+        }
+
+        private boolean renderLatestState() {
+            renderLock.lock();
+            try {
+                long numberOfSteps = ProgressLine.this.numberOfSteps;
+                if (numberOfSteps != numberOfStepsOfParts) {
+                    informPartsAboutNumberOfSteps(numberOfSteps);
+                    numberOfStepsOfParts = numberOfSteps;
+                }
+                long step = getCurrentStep();
+                if (step == numberOfSteps) {
+                    //the line is evaluated again if the number of steps has
+                    //been increased since it has been read.
+                    return !renderFinalFrame();
+                } else if (closed) {
+                    renderLastFrame(step);
+                    return false;
+                } else {
+                    if (step != evaluatedStep) {
+                        evaluatedStep = step;
+                        if (isRedrawNeeded(step))
+                            renderFrame(step);
+                    }
+                    return true;
+                }
+            } finally {
+                renderLock.unlock();
+            }
+        }
+
+        private void renderLastFrame(long step) {
+            finalFramePrinted = true;
+            if (log) {
+                if (step != stepOfLastLogLine)
+                    renderFrame(step);
+            } else {
+                renderFrame(step);
+                frame.clear();
+                frame.append(lineSeparator());
+                sink.write(frame.chars(), frame.length());
+            }
+            if (nameOfMBean != null)
+                ProgressLineRegistry.unregister(ProgressLine.this);
+        }
+
+        private void awaitChange() {
+            waiting = true;
+            //a thread that moved forward before waiting has been set does not
+            //unpark the renderer. Therefore the step is checked again.
+            if (!closed && getCurrentStep() == evaluatedStep)
+                LockSupport.park(this);
+            waiting = false;
+        }
+
+        private void removeShutdownHook() {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                //the JVM is already shutting down.
+            }
+        }
+    }
 }
@@ -0,0 +1,69 @@
+package com.github.stefanbirkner.jfortschritt;
+
+/**
+ * The management interface of a {@link ProgressLine} that has been
+ * registered by {@link ProgressLine#registerMBean(String)}. The attributes
+ * are read from the counters of the progress line without locking it.
+ *
+ * @since 0.3.0
+ */
+public interface ProgressLineMXBean {
+
+    /**
+     * Returns the number of steps that have been finished.
+     *
+     * @return the number of steps that have been finished.
+     * @since 0.3.0
+     */
+    long getCurrentStep();
+
+    /**
+     * Returns the number of steps that is needed for completion.
+     *
+     * @return the number of steps or -1 if it is unknown.
+     * @since 0.3.0
+     */
+    long getNumberOfSteps();
+
+    /**
+     * Returns the finished part of the steps in percent.
+     *
+     * @return the finished part of the steps or -1 if the number of steps is
+     * unknown.
+     * @since 0.3.0
+     */
+    double getPercentage();
+
+    /**
+     * Returns the average number of steps per second since start.
+     *
+     * @return the average number of steps per second.
+     * @since 0.3.0
+     */
+    double getStepsPerSecond();
+
+    /**
+     * Returns the time in milliseconds since start.
+     *
+     * @return the time since start.
+     * @since 0.3.0
+     */
+    long getElapsedTime();
+
+    /**
+     * Returns the estimated time in milliseconds until completion.
+     *
+     * @return the estimated time or -1 if there is no estimation.
+     * @since 0.3.0
+     */
+    long getEstimatedRemainingTime();
+
+    /**
+     * Returns whether the {@link StallWatchdog} of the progress line detected
+     * a stall.
+     *
+     * @return {@code true} if the progress line is stalled.
+     * @since 0.3.0
+     */
+    boolean isStalled();
+}
@@ -0,0 +1,54 @@
+package com.github.stefanbirkner.jfortschritt;
+
+/**
+ * Provides the attributes of a {@link ProgressLineMXBean} by snapshots of a
+ * progress line.
+ */
+class ProgressLineMXBeanAdapter implements ProgressLineMXBean {
+    private final ProgressLine progressLine;
+
+    ProgressLineMXBeanAdapter(ProgressLine progressLine) {
+        this.progressLine = progressLine;
+    }
+
+    @Override
+    public long getCurrentStep() {
+        return progressLine.getSnapshot().getCurrentStep();
+    }
+
+    @Override
+    public long getNumberOfSteps() {
+        return progressLine.getSnapshot().getNumberOfSteps();
+    }
+
+    @Override
+    public double getPercentage() {
+        ProgressSnapshot snapshot = progressLine.getSnapshot();
+        if (snapshot.getNumberOfSteps() == ProgressLine.UNKNOWN_NUMBER_OF_STEPS)
+            return -1;
+        else if (snapshot.isComplete())
+            return 100;
+        else
+            return 100d * snapshot.getCurrentStep() / snapshot.getNumberOfSteps();
+    }
+
+    @Override
+    public double getStepsPerSecond() {
+        return progressLine.getSnapshot().getStepsPerSecond();
+    }
+
+    @Override
+    public long getElapsedTime() {
+        return progressLine.getSnapshot().getElapsedTime();
+    }
+
+    @Override
+    public long getEstimatedRemainingTime() {
+        return progressLine.getSnapshot().getEstimatedRemainingTime();
+    }
+
+    @Override
+    public boolean isStalled() {
+        return progressLine.isStalled();
+    }
+}
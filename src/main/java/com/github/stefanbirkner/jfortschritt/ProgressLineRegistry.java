@@ -0,0 +1,104 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Tracks the progress lines of the JVM that have been registered as MBeans
+ * by {@link ProgressLine#registerMBean(String)}. A progress line is
+ * registered at the platform MBean server when it is started and
+ * unregistered when it is complete. Its object name is
+ * <pre>com.github.stefanbirkner.jfortschritt:type=ProgressLine,name="the name"</pre>
+ *
+ * @since 0.3.0
+ */
+public final class ProgressLineRegistry {
+    /**
+     * The domain of the object names of the progress lines.
+     *
+     * @since 0.3.0
+     */
+    public static final String DOMAIN = "com.github.stefanbirkner.jfortschritt";
+    private static final ConcurrentMap<ProgressLine, String> NAMES
+        = new ConcurrentHashMap<>();
+
+    private ProgressLineRegistry() {
+    }
+
+    /**
+     * Returns the progress lines that are currently registered.
+     *
+     * @return the progress lines by their names.
+     * @since 0.3.0
+     */
+    public static Map<String, ProgressLine> getProgressLines() {
+        Map<String, ProgressLine> progressLines = new HashMap<>();
+        for (Map.Entry<ProgressLine, String> entry : NAMES.entrySet())
+            progressLines.put(entry.getValue(), entry.getKey());
+        return progressLines;
+    }
+
+    /**
+     * Returns the object name of the MBean of a progress line with the given
+     * name.
+     *
+     * @param name the name of the progress line.
+     * @return the object name of the MBean.
+     * @since 0.3.0
+     */
+    public static ObjectName getObjectName(String name) {
+        try {
+            return new ObjectName(
+                DOMAIN + ":type=ProgressLine,name=" + ObjectName.quote(name));
+        } catch (JMException e) {
+            throw new IllegalArgumentException(
+                "The name " + name + " cannot be used for an MBean.", e);
+        }
+    }
+
+    /**
+     * Unregisters a progress line before it is complete, e.g. because its
+     * task failed. Nothing happens if the progress line is not registered.
+     * A failure of the MBean server is ignored like a failed registration,
+     * because monitoring must not fail the task of the progress line.
+     *
+     * @param progressLine the progress line that is unregistered.
+     * @since 0.3.0
+     */
+    public static void unregister(ProgressLine progressLine) {
+        String name = NAMES.remove(progressLine);
+        if (name != null)
+            try {
+                server().unregisterMBean(getObjectName(name));
+            } catch (JMException e) {
+                //e.g. the MBean has been unregistered by someone else.
+            }
+    }
+
+    /**
+     * Registers a progress line and returns whether it has been registered.
+     * A progress line whose MBean cannot be registered, e.g. because another
+     * progress line with the same name is running, is not registered,
+     * because monitoring must not fail the task of the progress line.
+     */
+    static boolean register(String name, ProgressLine progressLine) {
+        try {
+            server().registerMBean(
+                new ProgressLineMXBeanAdapter(progressLine), getObjectName(name));
+        } catch (JMException e) {
+            return false;
+        }
+        NAMES.put(progressLine, name);
+        return true;
+    }
+
+    private static MBeanServer server() {
+        return ManagementFactory.getPlatformMBeanServer();
+    }
+}
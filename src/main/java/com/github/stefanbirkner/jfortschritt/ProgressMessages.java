@@ -0,0 +1,51 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The messages that a {@link ProgressReporter} sends to a
+ * {@link ProgressAggregator}. A connection starts with the magic number and
+ * a {@link #JOIN} message with the name of the shard. It is followed by
+ * progress messages with the steps and the number of steps that have been
+ * added since the previous message. Numbers are written with seven bits per
+ * byte, so that a typical progress message has three to five bytes.
+ * <pre>
+ * JOIN                 byte 1, UTF name
+ * PROGRESS             byte 2, varlong steps
+ * PROGRESS_WITH_TOTAL  byte 3, varlong steps, varlong number of steps
+ * LEAVE                byte 4
+ * </pre>
+ * {@link #PROGRESS} is used while the number of steps of the shard is
+ * unknown.
+ */
+final class ProgressMessages {
+    static final int MAGIC_NUMBER = 0x4A46504D; //"JFPM"
+    static final int JOIN = 1;
+    static final int PROGRESS = 2;
+    static final int PROGRESS_WITH_TOTAL = 3;
+    static final int LEAVE = 4;
+
+    private ProgressMessages() {
+    }
+
+    static void writeVarLong(DataOutput output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput input) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = input.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("The number has more than 64 bits.");
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An {@code OutputStream} that moves a {@link ProgressLine} forward by the
+ * number of bytes that are written. The progress line has to be started with
+ * the number of bytes that are going to be written. Unlike a plain
+ * {@link FilterOutputStream} it writes arrays of bytes with a single call of
+ * the underlying stream.
+ *
+ * @since 0.3.0
+ */
+public class ProgressOutputStream extends FilterOutputStream {
+    private final ProgressLine progressLine;
+
+    /**
+     * Creates a stream that writes to the given stream.
+     *
+     * @param out the stream that is written to.
+     * @param progressLine the progress line that is moved forward.
+     * @since 0.3.0
+     */
+    public ProgressOutputStream(OutputStream out, ProgressLine progressLine) {
+        super(out);
+        this.progressLine = progressLine;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        progressLine.moveForward();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        if (len > 0)
+            progressLine.moveForward(len);
+    }
+}
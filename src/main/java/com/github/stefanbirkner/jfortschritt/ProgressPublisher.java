@@ -0,0 +1,208 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes snapshots of a {@link ProgressLine} to subscribers in the same
+ * process, e.g. an admin endpoint or a metrics exporter.
+ * <pre>   ProgressPublisher publisher = new ProgressPublisher(progressLine);
+ * publisher.{@link #subscribe(ProgressSubscriber) subscribe}(subscriber);
+ * progressLine.startWithNumberOfSteps(1000);
+ * publisher.{@link #start()};</pre>
+ * <p>A thread of the publisher takes a snapshot at a fixed interval. Moving
+ * the progress line forward has no additional costs. The snapshots are
+ * delivered to the subscribers by an {@link Executor}. Snapshots are
+ * conflated: every subscriber has a slot for a single snapshot that is
+ * overwritten by newer snapshots. Therefore a slow subscriber always gets
+ * the latest state, never causes a growing queue and never slows down
+ * other subscribers or the progress line.
+ * <p>The publisher stops after it published the snapshot of the complete
+ * progress line.
+ *
+ * @since 0.3.0
+ */
+public class ProgressPublisher {
+    private static final long DEFAULT_INTERVAL = 1_000;
+    private final ProgressLine progressLine;
+    private final Executor executor;
+    private final List<Subscription> subscriptions
+        = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService sampler; //guarded by this
+
+    /**
+     * Creates a publisher that delivers the snapshots by its own daemon
+     * threads.
+     *
+     * @param progressLine the progress line whose snapshots are published.
+     * @since 0.3.0
+     */
+    public ProgressPublisher(ProgressLine progressLine) {
+        this(progressLine, newCachedThreadPool(new PublisherThreadFactory()));
+    }
+
+    /**
+     * Creates a publisher that delivers the snapshots by the given executor.
+     *
+     * @param progressLine the progress line whose snapshots are published.
+     * @param executor the executor that calls the subscribers.
+     * @since 0.3.0
+     */
+    public ProgressPublisher(ProgressLine progressLine, Executor executor) {
+        this.progressLine = progressLine;
+        this.executor = executor;
+    }
+
+    /**
+     * Adds a subscriber. It receives the snapshots that are published after
+     * it has been added.
+     *
+     * @param subscriber the new subscriber.
+     * @since 0.3.0
+     */
+    public void subscribe(ProgressSubscriber subscriber) {
+        subscriptions.add(new Subscription(subscriber));
+    }
+
+    /**
+     * Removes a subscriber. It may still receive a snapshot that has been
+     * published before.
+     *
+     * @param subscriber the subscriber that is removed.
+     * @since 0.3.0
+     */
+    public void unsubscribe(ProgressSubscriber subscriber) {
+        for (Subscription subscription : subscriptions)
+            if (subscription.subscriber == subscriber)
+                subscriptions.remove(subscription);
+    }
+
+    /**
+     * Starts publishing a snapshot every second.
+     *
+     * @since 0.3.0
+     */
+    public void start() {
+        start(DEFAULT_INTERVAL, MILLISECONDS);
+    }
+
+    /**
+     * Starts publishing snapshots at the given interval. Nothing is
+     * published until the progress line is started.
+     *
+     * @param interval the time between two snapshots.
+     * @param unit the unit of the interval.
+     * @throws IllegalArgumentException if the interval is not positive.
+     * @throws IllegalStateException if the publisher has already been
+     *                               started.
+     * @since 0.3.0
+     */
+    public synchronized void start(long interval, TimeUnit unit) {
+        if (interval <= 0)
+            throw new IllegalArgumentException(
+                "You cannot set the publish interval to " + interval
+                    + " because it must be positive.");
+        if (sampler != null)
+            throw new IllegalStateException(
+                "The publisher has already been started and cannot be started twice.");
+        sampler = newSingleThreadScheduledExecutor(new PublisherThreadFactory());
+        sampler.scheduleWithFixedDelay(
+            new Runnable() {
+                @Override
+                public void run() {
+                    publish();
+                }
+            },
+            0, interval, unit);
+    }
+
+    /**
+     * Stops publishing snapshots. The delivery of snapshots that have already
+     * been published is not stopped. The threads of the default executor
+     * stop after they have been idle for a minute.
+     *
+     * @since 0.3.0
+     */
+    public void stop() {
+        ScheduledExecutorService sampler;
+        synchronized (this) {
+            sampler = this.sampler;
+            this.sampler = null;
+        }
+        if (sampler != null)
+            sampler.shutdown();
+    }
+
+    /**
+     * Publishes a snapshot of the progress line to all subscribers. Nothing
+     * is published if the progress line has not been started.
+     */
+    void publish() {
+        if (!progressLine.isStarted())
+            return;
+        ProgressSnapshot snapshot = progressLine.getSnapshot();
+        for (Subscription subscription : subscriptions)
+            subscription.offer(snapshot);
+        if (snapshot.isComplete())
+            stop();
+    }
+
+    private class Subscription implements Runnable {
+        final ProgressSubscriber subscriber;
+        final AtomicReference<ProgressSnapshot> latest
+            = new AtomicReference<>();
+        final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        Subscription(ProgressSubscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void offer(ProgressSnapshot snapshot) {
+            //a snapshot that has not been delivered yet is overwritten.
+            latest.set(snapshot);
+            if (scheduled.compareAndSet(false, true))
+                executor.execute(this);
+        }
+
+        @Override
+        public void run() {
+            do {
+                try {
+                    deliver();
+                } finally {
+                    scheduled.set(false);
+                }
+                //a snapshot may have been offered after the last delivery
+                //but before the flag has been reset.
+            } while (latest.get() != null && scheduled.compareAndSet(false, true));
+        }
+
+        private void deliver() {
+            ProgressSnapshot snapshot;
+            while ((snapshot = latest.getAndSet(null)) != null) {
+                subscriber.onSnapshot(snapshot);
+                if (snapshot.isComplete())
+                    subscriber.onComplete();
+            }
+        }
+    }
+
+    private static class PublisherThreadFactory implements ThreadFactory {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "jfortschritt-publisher");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A {@code ReadableByteChannel} that moves a {@link ProgressLine} forward by
+ * the number of bytes that are read. The progress line has to be started with
+ * the number of bytes that are going to be read.
+ *
+ * @since 0.3.0
+ */
+public class ProgressReadableByteChannel implements ReadableByteChannel {
+    private final ReadableByteChannel channel;
+    private final ProgressLine progressLine;
+
+    /**
+     * Creates a channel that reads from the given channel.
+     *
+     * @param channel the channel that is read.
+     * @param progressLine the progress line that is moved forward.
+     * @since 0.3.0
+     */
+    public ProgressReadableByteChannel(
+            ReadableByteChannel channel, ProgressLine progressLine) {
+        this.channel = channel;
+        this.progressLine = progressLine;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        int n = channel.read(dst);
+        if (n > 0)
+            progressLine.moveForward(n);
+        return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,155 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static com.github.stefanbirkner.jfortschritt.ProgressMessages.*;
+import static java.lang.Math.max;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Reports the progress of a worker process to a {@link ProgressAggregator}
+ * that combines the progress of several workers. The reporter is a
+ * {@link ProgressSubscriber}. It sends the steps that have been added since
+ * the previous snapshot whenever it receives a snapshot from a
+ * {@link ProgressPublisher}. Therefore it sends a single small message per
+ * interval of the publisher and not a message per step.
+ * <pre>   ProgressPublisher publisher = new ProgressPublisher(progressLine);
+ * publisher.subscribe(new ProgressReporter("shard-3", port));
+ * progressLine.startWithNumberOfSteps(1000);
+ * publisher.start(200, TimeUnit.MILLISECONDS);</pre>
+ * <p>The reporter leaves the aggregator when the progress line is complete.
+ * A worker that is restarted can join again with the same name. The
+ * aggregator only counts the steps that go beyond the steps that the shard
+ * reported before. A failure of the connection does not affect the worker.
+ * The reporter just stops reporting.
+ *
+ * @since 0.3.0
+ */
+public class ProgressReporter implements ProgressSubscriber, Closeable {
+    private final Socket socket;
+    private final DataOutputStream output;
+    //the following fields are guarded by this.
+    private long reportedStep = 0;
+    private long reportedNumberOfSteps = 0;
+    private boolean numberOfStepsReported = false;
+    private boolean closed = false;
+
+    /**
+     * Creates a reporter that reports to an aggregator on the same host.
+     *
+     * @param name the name of the shard that the worker works on.
+     * @param port the port of the aggregator.
+     * @throws IOException if the reporter cannot connect to the aggregator.
+     * @since 0.3.0
+     */
+    public ProgressReporter(String name, int port) throws IOException {
+        this(name, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Creates a reporter that reports to an aggregator at the given address.
+     *
+     * @param name the name of the shard that the worker works on.
+     * @param address the address of the aggregator.
+     * @throws IOException if the reporter cannot connect to the aggregator.
+     * @since 0.3.0
+     */
+    public ProgressReporter(String name, InetSocketAddress address) throws IOException {
+        socket = new Socket();
+        try {
+            socket.connect(address);
+            socket.setTcpNoDelay(true);
+            output = new DataOutputStream(
+                new BufferedOutputStream(socket.getOutputStream()));
+            output.writeInt(MAGIC_NUMBER);
+            output.writeByte(JOIN);
+            output.writeUTF(name);
+            output.flush();
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Sends the steps and the number of steps that have been added since the
+     * previous snapshot. Nothing is sent if there are no changes.
+     *
+     * @param snapshot the latest state of the progress line.
+     * @since 0.3.0
+     */
+    @Override
+    public synchronized void onSnapshot(ProgressSnapshot snapshot) {
+        if (closed)
+            return;
+        boolean numberOfStepsKnown
+            = snapshot.getNumberOfSteps() != ProgressLine.UNKNOWN_NUMBER_OF_STEPS;
+        long steps = max(0, snapshot.getCurrentStep() - reportedStep);
+        long numberOfSteps = numberOfStepsKnown
+            ? max(0, snapshot.getNumberOfSteps() - reportedNumberOfSteps) : 0;
+        //the aggregator must learn that the number of steps is known even if
+        //it did not change.
+        if (steps == 0 && numberOfSteps == 0
+                && numberOfStepsKnown == numberOfStepsReported)
+            return;
+        try {
+            if (numberOfStepsKnown) {
+                output.writeByte(PROGRESS_WITH_TOTAL);
+                writeVarLong(output, steps);
+                writeVarLong(output, numberOfSteps);
+            } else {
+                output.writeByte(PROGRESS);
+                writeVarLong(output, steps);
+            }
+            output.flush();
+            reportedStep += steps;
+            reportedNumberOfSteps += numberOfSteps;
+            numberOfStepsReported = numberOfStepsKnown;
+        } catch (IOException e) {
+            closeQuietly();
+        }
+    }
+
+    /**
+     * Leaves the aggregator.
+     *
+     * @since 0.3.0
+     */
+    @Override
+    public void onComplete() {
+        close();
+    }
+
+    /**
+     * Leaves the aggregator and closes the connection. The aggregator keeps
+     * the steps of the shard, so that another worker can continue it.
+     *
+     * @since 0.3.0
+     */
+    @Override
+    public synchronized void close() {
+        if (closed)
+            return;
+        try {
+            output.writeByte(LEAVE);
+            output.flush();
+        } catch (IOException e) {
+            //the aggregator treats a closed connection as leaving.
+        }
+        closeQuietly();
+    }
+
+    private void closeQuietly() {
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            //there is nothing that the worker could do.
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.lang.Math.max;
+import static java.util.Locale.ROOT;
+
+/**
+ * The state of a {@link ProgressLine} at a specific point in time. A snapshot
+ * is immutable.
+ *
+ * @since 0.3.0
+ */
+public final class ProgressSnapshot {
+    private final long numberOfSteps;
+    private final long currentStep;
+    private final long startTime;
+    private final long time;
+    private final double stepsPerSecond;
+
+    ProgressSnapshot(long numberOfSteps, long currentStep, long startTime,
+            long time, double stepsPerSecond) {
+        this.numberOfSteps = numberOfSteps;
+        this.currentStep = currentStep;
+        this.startTime = startTime;
+        this.time = time;
+        this.stepsPerSecond = stepsPerSecond;
+    }
+
+    /**
+     * Returns the number of steps that is needed for completion.
+     *
+     * @return the number of steps or
+     * {@link ProgressLine#UNKNOWN_NUMBER_OF_STEPS} if it is unknown.
+     * @since 0.3.0
+     */
+    public long getNumberOfSteps() {
+        return numberOfSteps;
+    }
+
+    /**
+     * Returns the number of steps that have been finished.
+     *
+     * @return the number of steps that have been finished.
+     * @since 0.3.0
+     */
+    public long getCurrentStep() {
+        return currentStep;
+    }
+
+    /**
+     * Returns the time when the progress line has been started in
+     * milliseconds since the epoch. The time of a resumed progress line is
+     * moved back by the time that it has been running before.
+     *
+     * @return the time when the progress line has been started.
+     * @since 0.3.0
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Returns the time of the snapshot in milliseconds since the epoch.
+     *
+     * @return the time of the snapshot.
+     * @since 0.3.0
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the time in milliseconds between the start of the progress
+     * line and the snapshot.
+     *
+     * @return the time between start and snapshot.
+     * @since 0.3.0
+     */
+    public long getElapsedTime() {
+        return max(0, time - startTime);
+    }
+
+    /**
+     * Returns the average number of steps per second since start.
+     *
+     * @return the average number of steps per second.
+     * @since 0.3.0
+     */
+    public double getStepsPerSecond() {
+        return stepsPerSecond;
+    }
+
+    /**
+     * Returns the estimated time in milliseconds until the progress line is
+     * complete. It is based on the average number of steps per second.
+     *
+     * @return the estimated time until completion, zero if the progress line
+     * is complete or -1 if there is no estimation because the number of
+     * steps is unknown or there has been no progress yet.
+     * @since 0.3.0
+     */
+    public long getEstimatedRemainingTime() {
+        if (isComplete())
+            return 0;
+        else if (numberOfSteps == ProgressLine.UNKNOWN_NUMBER_OF_STEPS
+                || stepsPerSecond <= 0)
+            return -1;
+        else
+            return (long) Math.ceil(
+                1000d * (numberOfSteps - currentStep) / stepsPerSecond);
+    }
+
+    /**
+     * Returns whether the progress line is complete.
+     *
+     * @return {@code true} if all steps have been finished.
+     * @since 0.3.0
+     */
+    public boolean isComplete() {
+        return currentStep == numberOfSteps;
+    }
+
+    /**
+     * Returns the state as a single line of text. E.g.
+     * <pre>42% (420/1000) 12.3 steps/s elapsed 34s eta 47s</pre>
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        if (numberOfSteps == ProgressLine.UNKNOWN_NUMBER_OF_STEPS)
+            text.append("(").append(currentStep).append("/?)");
+        else
+            text.append(percentage()).append("% (").append(currentStep)
+                .append("/").append(numberOfSteps).append(")");
+        text.append(String.format(ROOT, " %.1f steps/s elapsed %ds",
+            stepsPerSecond, getElapsedTime() / 1000));
+        long remainingTime = getEstimatedRemainingTime();
+        if (remainingTime > 0)
+            text.append(" eta ").append((remainingTime + 999) / 1000).append("s");
+        return text.toString();
+    }
+
+    private int percentage() {
+        if (isComplete())
+            return 100;
+        else
+            return (int) (100d * currentStep / numberOfSteps);
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.stefanbirkner.jfortschritt;
+
+/**
+ * Receives the snapshots of a {@link ProgressLine} that are published by a
+ * {@link ProgressPublisher}.
+ * <p>A subscriber is called by a single thread at a time, but not always by
+ * the same thread. It only receives the latest snapshot. Snapshots that have
+ * been published while the subscriber was busy are skipped.
+ *
+ * @since 0.3.0
+ */
+public interface ProgressSubscriber {
+
+    /**
+     * Called with the latest state of the progress line.
+     *
+     * @param snapshot the latest state of the progress line.
+     * @since 0.3.0
+     */
+    void onSnapshot(ProgressSnapshot snapshot);
+
+    /**
+     * Called after the snapshot of the complete progress line has been
+     * received. No further snapshots are received.
+     *
+     * @since 0.3.0
+     */
+    void onComplete();
+}
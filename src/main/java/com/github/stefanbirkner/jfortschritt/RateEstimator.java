@@ -0,0 +1,48 @@
+package com.github.stefanbirkner.jfortschritt;
+
+/**
+ * Estimates the number of steps per millisecond of a {@link ProgressLine}.
+ * It is used by {@link EstimatedTime} for calculating the remaining time and
+ * by {@link Throughput} for the current rate.
+ * JFortschritt provides three estimators:
+ * <ul>
+ * <li>{@link AverageRateEstimator} uses the average rate since start.</li>
+ * <li>{@link SlidingWindowRateEstimator} uses the rate of the last
+ * samples.</li>
+ * <li>{@link ExponentiallyWeightedRateEstimator} uses an exponentially
+ * weighted moving average of the rate.</li>
+ * </ul>
+ * <p>Estimators are called for every rendering of the progress line. Thus
+ * they should not allocate memory.
+ *
+ * @since 0.3.0
+ */
+public interface RateEstimator {
+
+    /**
+     * Called when the progress line is started.
+     *
+     * @param time the time of the start in milliseconds. It is only
+     *             meaningful relative to the times of the samples.
+     * @since 0.3.0
+     */
+    void start(long time);
+
+    /**
+     * Adds a sample of the progress line.
+     *
+     * @param step the current step.
+     * @param time the current time in milliseconds.
+     * @since 0.3.0
+     */
+    void addSample(long step, long time);
+
+    /**
+     * Returns the estimated number of steps per millisecond.
+     *
+     * @return the estimated number of steps per millisecond or {@code 0} if
+     * there is not enough data for an estimation.
+     * @since 0.3.0
+     */
+    double getStepsPerMillisecond();
+}
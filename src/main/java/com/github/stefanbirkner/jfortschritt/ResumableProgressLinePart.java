@@ -0,0 +1,26 @@
+package com.github.stefanbirkner.jfortschritt;
+
+/**
+ * A {@link LongProgressLinePart} that can continue with the history of a
+ * previous run. A {@link ProgressLine} that is resumed from a
+ * {@link ProgressFile} calls {@link #progressLineResumed(long, long, long)}
+ * instead of {@link #progressLineStarted(long)} for such a part. Other parts
+ * are started as if the progress line had been started at the resumed step.
+ *
+ * @since 0.3.0
+ */
+public interface ResumableProgressLinePart extends LongProgressLinePart {
+
+    /**
+     * Called by the {@link ProgressLine} when it is resumed.
+     *
+     * @param numberOfSteps the total number of steps or
+     *                      {@link ProgressLine#UNKNOWN_NUMBER_OF_STEPS} if
+     *                      the number of steps is unknown.
+     * @param step the step that has been reached by the previous run.
+     * @param elapsedTime the time in milliseconds that the previous run
+     *                    needed to reach this step.
+     * @since 0.3.0
+     */
+    void progressLineResumed(long numberOfSteps, long step, long elapsedTime);
+}
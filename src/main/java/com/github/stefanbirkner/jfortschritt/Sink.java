@@ -0,0 +1,23 @@
+package com.github.stefanbirkner.jfortschritt;
+
+/**
+ * The destination of a {@link ProgressLine}. JFortschritt provides sinks for
+ * a {@link PrintStreamSink PrintStream}, a {@link WriterSink Writer} and a
+ * {@link ChannelSink WritableByteChannel}.
+ *
+ * @since 0.3.0
+ */
+public interface Sink {
+
+    /**
+     * Writes the text of the progress line. The text must be written
+     * immediately because the progress line reuses the array after this
+     * method returns.
+     *
+     * @param chars an array that starts with the text that has to be
+     *              written.
+     * @param length the number of characters that have to be written.
+     * @since 0.3.0
+     */
+    void write(char[] chars, int length);
+}
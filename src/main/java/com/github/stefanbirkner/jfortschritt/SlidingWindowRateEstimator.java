@@ -0,0 +1,63 @@
+package com.github.stefanbirkner.jfortschritt;
+
+/**
+ * Estimates the rate by the rate of the last samples. The estimation follows
+ * changes of the rate, e.g. after the warm-up of a task. Its window size
+ * determines how fast it follows: a small window follows fast but results in
+ * an unstable estimation.
+ * <p>The samples are stored in a ring buffer of fixed size, so that adding a
+ * sample does not allocate memory.
+ *
+ * @since 0.3.0
+ */
+public class SlidingWindowRateEstimator implements RateEstimator {
+    private final long[] steps;
+    private final long[] times;
+    private int indexOfNewestSample = 0;
+    private int numberOfSamples = 0;
+
+    /**
+     * Creates an estimator with a window of the given size.
+     *
+     * @param windowSize the number of samples that are used for the
+     *                   estimation.
+     * @throws IllegalArgumentException if {@code windowSize} is less than
+     *                                  two.
+     * @since 0.3.0
+     */
+    public SlidingWindowRateEstimator(int windowSize) {
+        if (windowSize < 2)
+            throw new IllegalArgumentException(
+                "You cannot set the window size to " + windowSize
+                    + " because it must be at least 2.");
+        this.steps = new long[windowSize];
+        this.times = new long[windowSize];
+    }
+
+    @Override
+    public void start(long time) {
+        numberOfSamples = 0;
+        addSample(0, time);
+    }
+
+    @Override
+    public void addSample(long step, long time) {
+        indexOfNewestSample = (indexOfNewestSample + 1) % steps.length;
+        steps[indexOfNewestSample] = step;
+        times[indexOfNewestSample] = time;
+        if (numberOfSamples < steps.length)
+            ++numberOfSamples;
+    }
+
+    @Override
+    public double getStepsPerMillisecond() {
+        int indexOfOldestSample = (indexOfNewestSample - numberOfSamples + 1
+            + steps.length) % steps.length;
+        long duration = times[indexOfNewestSample] - times[indexOfOldestSample];
+        if (duration <= 0)
+            return 0;
+        else
+            return (double) (steps[indexOfNewestSample] - steps[indexOfOldestSample])
+                / duration;
+    }
+}
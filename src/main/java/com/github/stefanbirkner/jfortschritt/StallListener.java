@@ -0,0 +1,22 @@
+package com.github.stefanbirkner.jfortschritt;
+
+/**
+ * Is informed by a {@link StallWatchdog} when a {@link ProgressLine} stalls.
+ * <p>The listener is called by the thread of the watchdog. It is called once
+ * per stall and again only after the progress line made progress in between.
+ *
+ * @since 0.3.0
+ */
+public interface StallListener {
+
+    /**
+     * Called by the {@link StallWatchdog} when the progress line did not
+     * move forward within the threshold or moved slower than the minimum
+     * rate.
+     *
+     * @param snapshot the state of the progress line when the stall has been
+     *                 detected.
+     * @since 0.3.0
+     */
+    void progressLineStalled(ProgressSnapshot snapshot);
+}
@@ -0,0 +1,257 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.lang.Math.max;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects a {@link ProgressLine} that stopped making progress. The progress
+ * line is stalled if it did not move forward within a threshold or, if a
+ * minimum rate is set, if it moved slower than this rate during the last
+ * threshold.
+ * <pre>   StallWatchdog watchdog = new StallWatchdog(5, TimeUnit.MINUTES);
+ * watchdog.{@link #setStallListener(StallListener) setStallListener}(listener);
+ * watchdog.{@link #setThreadDumpDirectory(File) setThreadDumpDirectory}(new File("/var/log/myjob"));
+ * progressLine.{@link ProgressLine#setStallWatchdog(StallWatchdog) setStallWatchdog}(watchdog);
+ * progressLine.startWithNumberOfSteps(1000);</pre>
+ * <p>When a stall is detected the progress line is marked as
+ * {@link ProgressLine#isStalled() stalled}, the listener is called and a
+ * dump of all threads is written to the thread dump directory. The mark is
+ * removed by the first check after the progress line moved forward again.
+ * An exception of the listener is passed to the uncaught exception handler
+ * of the watchdog's thread and does not stop the watchdog.
+ * <p>The watchdog looks at the progress line from its own thread four times
+ * per threshold. Moving the progress line forward has no additional costs.
+ * The thread is stopped when the progress line is complete. A watchdog can
+ * only watch a single progress line.
+ *
+ * @since 0.3.0
+ */
+public class StallWatchdog {
+    private static final int CHECKS_PER_THRESHOLD = 4;
+    private final long threshold;
+    private volatile double minimumRate = 0;
+    private volatile StallListener listener;
+    private volatile File threadDumpDirectory;
+    private volatile boolean stalled = false;
+    //the following fields are guarded by this.
+    private ProgressLine progressLine;
+    private ScheduledExecutorService checker;
+    private long stepOfLastProgress;
+    private long timeOfLastProgress;
+    private long stepAtStartOfWindow;
+    private long timeAtStartOfWindow;
+    private boolean rateTooLow = false;
+
+    /**
+     * Creates a watchdog that detects a progress line that did not move
+     * forward within the given threshold.
+     *
+     * @param threshold the maximum time without progress.
+     * @param unit the unit of the threshold.
+     * @throws IllegalArgumentException if the threshold is not positive.
+     * @since 0.3.0
+     */
+    public StallWatchdog(long threshold, TimeUnit unit) {
+        if (threshold <= 0)
+            throw new IllegalArgumentException(
+                "You cannot set the threshold to " + threshold
+                    + " because it must be positive.");
+        this.threshold = max(1, unit.toMillis(threshold));
+    }
+
+    /**
+     * Set the minimum number of steps per second. The progress line is also
+     * stalled if it moved slower during the last threshold. The default is
+     * zero, i.e. only a progress line without any progress is stalled.
+     *
+     * @param stepsPerSecond the minimum number of steps per second.
+     * @throws IllegalArgumentException if {@code stepsPerSecond} is negative.
+     * @since 0.3.0
+     */
+    public void setMinimumRate(double stepsPerSecond) {
+        if (!(stepsPerSecond >= 0))
+            throw new IllegalArgumentException(
+                "You cannot set the minimum rate to " + stepsPerSecond
+                    + " because it must be a non-negative number.");
+        this.minimumRate = stepsPerSecond;
+    }
+
+    /**
+     * Set the listener that is called when a stall is detected.
+     *
+     * @param listener the listener.
+     * @since 0.3.0
+     */
+    public void setStallListener(StallListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Set the directory that a dump of all threads is written to when a
+     * stall is detected. Every dump is written to its own file. No dumps are
+     * written by default.
+     *
+     * @param directory the directory for the thread dumps.
+     * @since 0.3.0
+     */
+    public void setThreadDumpDirectory(File directory) {
+        this.threadDumpDirectory = directory;
+    }
+
+    /**
+     * Returns whether the progress line is stalled. The mark is removed by
+     * the first check after the progress line moved forward again, i.e. up
+     * to a quarter of the threshold later.
+     *
+     * @return {@code true} if the progress line is stalled.
+     * @since 0.3.0
+     */
+    public boolean isStalled() {
+        return stalled;
+    }
+
+    /**
+     * Stops watching the progress line.
+     *
+     * @since 0.3.0
+     */
+    public synchronized void stop() {
+        if (checker != null) {
+            checker.shutdownNow();
+            checker = null;
+        }
+    }
+
+    synchronized void watch(ProgressLine progressLine) {
+        if (this.progressLine != null)
+            throw new IllegalStateException(
+                "The watchdog is already watching another progress line.");
+        this.progressLine = progressLine;
+    }
+
+    synchronized void start() {
+        long step = progressLine.getSnapshot().getCurrentStep();
+        long time = getTime();
+        stepOfLastProgress = step;
+        timeOfLastProgress = time;
+        startWindow(step, time);
+        long interval = max(1, threshold / CHECKS_PER_THRESHOLD);
+        checker = newSingleThreadScheduledExecutor(new WatchdogThreadFactory());
+        checker.scheduleWithFixedDelay(
+            new Runnable() {
+                @Override
+                public void run() {
+                    check();
+                }
+            },
+            interval, interval, MILLISECONDS);
+    }
+
+    synchronized void check() {
+        ProgressSnapshot snapshot = progressLine.getSnapshot();
+        if (snapshot.isComplete()) {
+            stalled = false;
+            stop();
+            return;
+        }
+        long step = snapshot.getCurrentStep();
+        long time = getTime();
+        if (step != stepOfLastProgress) {
+            stepOfLastProgress = step;
+            timeOfLastProgress = time;
+        }
+        if (time - timeAtStartOfWindow >= threshold) {
+            double rate = 1000d * (step - stepAtStartOfWindow)
+                / (time - timeAtStartOfWindow);
+            rateTooLow = rate < minimumRate;
+            startWindow(step, time);
+        }
+        if (time - timeOfLastProgress >= threshold || rateTooLow) {
+            if (!stalled) {
+                stalled = true;
+                dumpThreads();
+                informListener(snapshot);
+            }
+        } else {
+            stalled = false;
+        }
+    }
+
+    private void startWindow(long step, long time) {
+        stepAtStartOfWindow = step;
+        timeAtStartOfWindow = time;
+    }
+
+    private void informListener(ProgressSnapshot snapshot) {
+        StallListener listener = this.listener;
+        if (listener != null)
+            try {
+                listener.progressLineStalled(snapshot);
+            } catch (RuntimeException e) {
+                //an exception would cancel the scheduled checks.
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+    }
+
+    private void dumpThreads() {
+        File directory = threadDumpDirectory;
+        if (directory == null)
+            return;
+        File file = new File(directory,
+            "jfortschritt-stall-" + System.currentTimeMillis() + ".txt");
+        try (Writer writer = new OutputStreamWriter(
+                new FileOutputStream(file), UTF_8)) {
+            writeThreadDump(writer);
+        } catch (IOException | RuntimeException e) {
+            //a missing thread dump must not stop the watchdog.
+        }
+    }
+
+    static void writeThreadDump(Writer writer) throws IOException {
+        ThreadInfo[] threads = ManagementFactory.getThreadMXBean()
+            .dumpAllThreads(true, true);
+        for (ThreadInfo thread : threads) {
+            writer.write("\"" + thread.getThreadName() + "\" Id="
+                + thread.getThreadId() + " " + thread.getThreadState());
+            if (thread.getLockName() != null)
+                writer.write(" on " + thread.getLockName());
+            if (thread.getLockOwnerName() != null)
+                writer.write(" owned by \"" + thread.getLockOwnerName()
+                    + "\" Id=" + thread.getLockOwnerId());
+            writer.write("\n");
+            //ThreadInfo.toString() shows only the top eight frames.
+            for (StackTraceElement element : thread.getStackTrace())
+                writer.write("\tat " + element + "\n");
+            writer.write("\n");
+        }
+    }
+
+    //is used to override time in tests.
+    long getTime() {
+        return NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    private static class WatchdogThreadFactory implements ThreadFactory {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "jfortschritt-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
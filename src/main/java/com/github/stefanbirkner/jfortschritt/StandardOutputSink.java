@@ -0,0 +1,33 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+
+/**
+ * Writes the progress line to {@code System.out}. The stream is looked up for
+ * every frame, so that the progress line follows calls of
+ * {@link System#setOut(PrintStream)}.
+ * <p>The text is encoded with the charset of the standard output, which is
+ * the charset that the JVM used for creating {@code System.out}.
+ */
+class StandardOutputSink extends PrintStreamSink {
+    StandardOutputSink() {
+        super(null, charsetOfStandardOutput());
+    }
+
+    @Override
+    PrintStream getStream() {
+        return System.out;
+    }
+
+    private static Charset charsetOfStandardOutput() {
+        //Java 18+ uses stdout.encoding, older versions sun.stdout.encoding.
+        //Both are only set if the standard output is a console.
+        for (String property : new String[] {"stdout.encoding", "sun.stdout.encoding"}) {
+            String encoding = System.getProperty(property);
+            if (encoding != null && Charset.isSupported(encoding))
+                return Charset.forName(encoding);
+        }
+        return Charset.defaultCharset();
+    }
+}
@@ -0,0 +1,171 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.lang.Math.round;
+import static java.util.Locale.ROOT;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Displays percentiles of the time between two consecutive moves of the
+ * progress line. E.g.
+ * <pre>p50 1.2ms p99 15ms max 40ms</pre>
+ * <p>Averages hide a few slow steps. This part shows them. Every move of the
+ * progress line is recorded in a histogram with a fixed memory footprint, so
+ * that recording neither blocks nor allocates memory. If the progress line
+ * is moved {@code n} steps at once then the time is split evenly between
+ * these steps. The distribution of all recorded times is available by
+ * {@link #getReport()}, e.g. after the progress line is complete.
+ * <pre>StepLatency latency = new StepLatency();
+ * ProgressLine progressLine = new ProgressLine(new Counter(), latency);
+ * ...
+ * System.out.println(latency.getReport());</pre>
+ *
+ * @since 0.3.0
+ */
+public class StepLatency implements LongProgressLinePart, StepListener {
+    private static final String[] PERCENTILES_OF_REPORT = {"50", "90", "99", "99.9"};
+    private final LogHistogram histogram = new LogHistogram();
+    private final AtomicLong timeOfLastMove = new AtomicLong();
+
+    /**
+     * Starts the component. The time between the start and the first step is
+     * recorded as the time of the first step.
+     *
+     * @param numberOfSteps the total number of steps.
+     * @since 0.3.0
+     */
+    @Override
+    public void progressLineStarted(int numberOfSteps) {
+        progressLineStarted((long) numberOfSteps);
+    }
+
+    /**
+     * Starts the component. The time between the start and the first step is
+     * recorded as the time of the first step.
+     *
+     * @param numberOfSteps the total number of steps.
+     * @since 0.3.0
+     */
+    @Override
+    public void progressLineStarted(long numberOfSteps) {
+        timeOfLastMove.set(getTime());
+    }
+
+    /**
+     * Does nothing, because the times between steps don't depend on the
+     * total number of steps.
+     *
+     * @param numberOfSteps the new total number of steps.
+     * @since 0.3.0
+     */
+    @Override
+    public void numberOfStepsChanged(long numberOfSteps) {
+    }
+
+    /**
+     * Records the time since the last move. It is split evenly between the
+     * {@code n} steps.
+     *
+     * @param n the number of steps that the progress line moved forward.
+     * @since 0.3.0
+     */
+    @Override
+    public void movedForward(long n) {
+        if (n <= 0)
+            return;
+        long time = getTime();
+        long duration = time - timeOfLastMove.getAndSet(time);
+        histogram.record(duration / n, n);
+    }
+
+    /**
+     * Returns the median, the 99th percentile and the maximum of the times
+     * between two steps. E.g.
+     * <pre>p50 1.2ms p99 15ms max 40ms</pre>
+     *
+     * @param step the number of the current step.
+     * @return the percentiles of the times between two steps.
+     * @since 0.3.0
+     */
+    @Override
+    public String getOutputForStep(int step) {
+        return getOutputForStep((long) step);
+    }
+
+    /**
+     * Returns the median, the 99th percentile and the maximum of the times
+     * between two steps. E.g.
+     * <pre>p50 1.2ms p99 15ms max 40ms</pre>
+     *
+     * @param step the number of the current step.
+     * @return the percentiles of the times between two steps.
+     * @since 0.3.0
+     */
+    @Override
+    public String getOutputForStep(long step) {
+        if (histogram.getTotalCount() == 0)
+            return "";
+        return "p50 " + format(histogram.getValueAtPercentile(50))
+            + " p99 " + format(histogram.getValueAtPercentile(99))
+            + " max " + format(histogram.getMax());
+    }
+
+    /**
+     * Returns the distribution of the times between two steps. It has a
+     * summary of the percentiles and a line for every bucket of the
+     * histogram that contains at least one step. E.g.
+     * <pre>steps 1000 p50 1.2ms p90 5.0ms p99 15ms p99.9 38ms max 40ms
+     *   &lt;= 1.1ms       612  61.2%
+     *   &lt;= 1.2ms       140  75.2%
+     *   ...</pre>
+     *
+     * @return the distribution of the times between two steps.
+     * @since 0.3.0
+     */
+    public String getReport() {
+        long totalCount = histogram.getTotalCount();
+        StringBuilder report = new StringBuilder();
+        report.append("steps ").append(totalCount);
+        if (totalCount == 0)
+            return report.toString();
+        for (String percentile : PERCENTILES_OF_REPORT)
+            report.append(" p").append(percentile).append(" ").append(
+                format(histogram.getValueAtPercentile(Double.parseDouble(percentile))));
+        report.append(" max ").append(format(histogram.getMax()));
+        long cumulativeCount = 0;
+        for (int index = 0; index < histogram.getNumberOfBuckets(); ++index) {
+            long count = histogram.getCount(index);
+            if (count == 0)
+                continue;
+            cumulativeCount += count;
+            report.append(System.lineSeparator()).append(String.format(ROOT,
+                "  <= %-8s %9d %5.1f%%",
+                format(histogram.highestValueOf(index)), count,
+                100d * cumulativeCount / totalCount));
+        }
+        return report.toString();
+    }
+
+    private String format(long nanoseconds) {
+        if (nanoseconds < 1_000)
+            return nanoseconds + "ns";
+        else if (nanoseconds < 1_000_000)
+            return formatNumber(nanoseconds / 1e3) + "us";
+        else if (nanoseconds < 1_000_000_000)
+            return formatNumber(nanoseconds / 1e6) + "ms";
+        else
+            return formatNumber(nanoseconds / 1e9) + "s";
+    }
+
+    private String formatNumber(double number) {
+        if (number >= 10)
+            return Long.toString(round(number));
+        long tenths = round(number * 10);
+        return tenths / 10 + "." + tenths % 10;
+    }
+
+    //is used to override time in tests.
+    long getTime() {
+        return System.nanoTime();
+    }
+}
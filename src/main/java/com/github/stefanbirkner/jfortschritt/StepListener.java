@@ -0,0 +1,23 @@
+package com.github.stefanbirkner.jfortschritt;
+
+/**
+ * A {@link ProgressLinePart} that also implements this interface is informed
+ * about every move of the {@link ProgressLine}, not only about the steps that
+ * are rendered.
+ * <p>The listener is called by every thread that moves the progress line
+ * forward and without holding a lock. Therefore it must be thread-safe and
+ * it should be cheap.
+ *
+ * @since 0.3.0
+ */
+public interface StepListener {
+
+    /**
+     * Called by the {@link ProgressLine} after it has been moved forward.
+     *
+     * @param n the number of steps that the progress line has been moved
+     *          forward.
+     * @since 0.3.0
+     */
+    void movedForward(long n);
+}
@@ -0,0 +1,23 @@
+package com.github.stefanbirkner.jfortschritt;
+
+/**
+ * A {@link LongProgressLinePart} that holds resources while the
+ * {@link ProgressLine} is running, e.g. a background thread like
+ * {@link JvmResources}. The progress line calls
+ * {@link #progressLineStopped()} once, either when it is complete or when
+ * it is {@link ProgressLine#close() closed} before, e.g. because its task
+ * failed.
+ *
+ * @since 0.3.0
+ */
+public interface StoppableProgressLinePart extends LongProgressLinePart {
+
+    /**
+     * Called by the {@link ProgressLine} when it is complete or closed. The
+     * part should release its resources. It may still be asked for its
+     * output afterwards.
+     *
+     * @since 0.3.0
+     */
+    void progressLineStopped();
+}
@@ -0,0 +1,154 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.lang.Math.min;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A sub progress tracks a part of a task that has its own number of steps.
+ * It is worth a fixed number of steps of its parent, which is either a
+ * {@link ProgressLine} or another sub progress. E.g. parsing may be worth 5%
+ * of a task, transforming 80% and writing 15%.
+ * <pre>   progressLine.startWithNumberOfSteps(100);
+ * SubProgress parse = progressLine.{@link ProgressLine#createSubProgress(long, long) createSubProgress(5, numberOfFiles)};
+ * SubProgress transform = progressLine.createSubProgress(80, numberOfRecords);
+ * SubProgress write = progressLine.createSubProgress(15, numberOfRecords);</pre>
+ * <p>Moving a sub progress forward moves its parent forward by the weighted
+ * fraction of the sub progress' steps. Therefore the parts of the progress
+ * line, e.g. the {@link EstimatedTime}, use the weighted completion of the
+ * whole task. The parent should have enough steps for a fine-grained
+ * progress, because it can only move by whole steps.
+ * <p>A sub progress can be shared by any number of threads. Moving it
+ * forward does not block. Sub progresses can be created by any thread at any
+ * time until their weights add up to the number of steps of the parent.
+ *
+ * @since 0.3.0
+ */
+public class SubProgress {
+    private final ProgressLine progressLine;
+    private final SubProgress parent;
+    private final long weight;
+    private final long numberOfSteps;
+    private final AtomicLong currentStep = new AtomicLong();
+    private final AtomicLong stepsOfParent = new AtomicLong();
+    private final AtomicLong allocatedWeight = new AtomicLong();
+
+    SubProgress(ProgressLine progressLine, SubProgress parent, long weight,
+            long numberOfSteps) {
+        this.progressLine = progressLine;
+        this.parent = parent;
+        this.weight = weight;
+        this.numberOfSteps = numberOfSteps;
+        if (numberOfSteps == 0)
+            moveParentForwardTo(0);
+    }
+
+    /**
+     * Creates a sub progress for a part of this sub progress.
+     *
+     * @param weight the number of steps of this sub progress that the new
+     *               sub progress is worth.
+     * @param numberOfSteps the number of steps of the new sub progress.
+     * @return the new sub progress.
+     * @throws IllegalArgumentException if {@code weight} or
+     *                                  {@code numberOfSteps} is negative.
+     * @throws IllegalStateException if the weight exceeds the steps that are
+     *                               not assigned to other sub progresses.
+     * @since 0.3.0
+     */
+    public SubProgress createSubProgress(long weight, long numberOfSteps) {
+        allocateWeight(allocatedWeight, weight, this.numberOfSteps, numberOfSteps);
+        return new SubProgress(null, this, weight, numberOfSteps);
+    }
+
+    /**
+     * Move the sub progress one step forward.
+     *
+     * @throws IllegalStateException if the sub progress is already complete.
+     * @since 0.3.0
+     */
+    public void moveForward() {
+        long step;
+        do {
+            step = currentStep.get() + 1;
+            if (step > numberOfSteps)
+                throw new IllegalStateException(
+                    "The sub progress cannot be moved forward because it is already complete.");
+        } while (!currentStep.compareAndSet(step - 1, step));
+        moveParentForwardTo(step);
+    }
+
+    /**
+     * Move the sub progress {@code n} steps forward. The sub progress is not
+     * moved at all if it would move beyond its end.
+     *
+     * @param n the number of steps.
+     * @throws IllegalArgumentException if {@code n} is negative.
+     * @throws IllegalStateException if the sub progress would move beyond its
+     *                               end.
+     * @since 0.3.0
+     */
+    public void moveForward(long n) {
+        if (n < 0)
+            throw new IllegalArgumentException(
+                "You cannot move forward " + n
+                    + " steps because it must be a non-negative number.");
+        long step;
+        do {
+            step = currentStep.get();
+            if (step + n > numberOfSteps)
+                throw new IllegalStateException(
+                    "The sub progress cannot be moved forward " + n
+                        + " steps because only "
+                        + (numberOfSteps - min(step, numberOfSteps))
+                        + " steps are left.");
+        } while (!currentStep.compareAndSet(step, step + n));
+        moveParentForwardTo(step + n);
+    }
+
+    static void allocateWeight(AtomicLong allocatedWeight, long weight,
+            long availableWeight, long numberOfSteps) {
+        if (weight < 0)
+            throw new IllegalArgumentException(
+                "You cannot set the weight to " + weight
+                    + " because it must be a non-negative number.");
+        if (numberOfSteps < 0)
+            throw new IllegalArgumentException(
+                "You cannot set number of steps to " + numberOfSteps
+                    + " because it must be a non-negative number.");
+        long allocated;
+        do {
+            allocated = allocatedWeight.get();
+            if (allocated + weight > availableWeight)
+                throw new IllegalStateException(
+                    "You cannot create a sub progress with weight " + weight
+                        + " because only " + (availableWeight - allocated)
+                        + " steps are not assigned to other sub progresses.");
+        } while (!allocatedWeight.compareAndSet(allocated, allocated + weight));
+    }
+
+    private void moveParentForwardTo(long step) {
+        long target = stepsOfParent(step);
+        long reported;
+        do {
+            reported = stepsOfParent.get();
+            if (reported >= target)
+                return;
+        } while (!stepsOfParent.compareAndSet(reported, target));
+        moveParentForward(target - reported);
+    }
+
+    private long stepsOfParent(long step) {
+        if (step == numberOfSteps)
+            return weight;
+        else
+            return (long) ((double) step / numberOfSteps * weight);
+    }
+
+    private void moveParentForward(long n) {
+        if (parent == null)
+            progressLine.moveForward(n);
+        else
+            parent.moveForward(n);
+    }
+}
@@ -0,0 +1,281 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Displays the current and the average number of steps per second. E.g.
+ * <pre>12.3k/s avg 10.1k/s</pre>
+ * <p>The rates are calculated from the steps of the progress line when the
+ * part is rendered. Therefore the part has no costs for steps that are not
+ * rendered. The current rate is an exponentially weighted moving average
+ * with a time constant of five seconds by default.
+ * <p>If the steps of the progress line are bytes then the rates can be shown
+ * in bytes per second.
+ * <pre>new Throughput(Throughput.Unit.BYTES)</pre>
+ *
+ * @since 0.3.0
+ */
+public class Throughput
+        implements ResumableProgressLinePart, AppendingProgressLinePart {
+    /**
+     * The unit of the steps of the progress line.
+     *
+     * @since 0.3.0
+     */
+    public enum Unit {
+        /**
+         * Steps are arbitrary items. Rates are scaled by powers of 1000,
+         * e.g. {@code 12.3k/s}.
+         *
+         * @since 0.3.0
+         */
+        ITEMS(1_000, "/s", "k/s", "M/s", "G/s", "T/s"),
+
+        /**
+         * Steps are bytes. Rates are scaled by powers of 1024, e.g.
+         * {@code 12.3 MiB/s}.
+         *
+         * @since 0.3.0
+         */
+        BYTES(1_024, " B/s", " KiB/s", " MiB/s", " GiB/s", " TiB/s");
+
+        private final int base;
+        private final String[] suffixes;
+
+        Unit(int base, String... suffixes) {
+            this.base = base;
+            this.suffixes = suffixes;
+        }
+    }
+
+    private static final int MILLISECONDS_PER_SECOND = 1_000;
+    private static final long NOTHING = -1;
+    private static final long NOTHING_APPENDED = -2;
+    private static final int BITS_OF_SUFFIX = 3;
+    private final Unit unit;
+    private final RateEstimator currentRate;
+    private long numberOfSteps;
+    private long start;
+    //a rate is stored as its rounded tenths and the index of its suffix, so
+    //that outputs can be compared without creating them.
+    private long current = NOTHING;
+    private long average = NOTHING;
+    private long appendedCurrent = NOTHING_APPENDED;
+    private long appendedAverage = NOTHING_APPENDED;
+
+    /**
+     * Creates a throughput for steps that are arbitrary items.
+     *
+     * @since 0.3.0
+     */
+    public Throughput() {
+        this(Unit.ITEMS);
+    }
+
+    /**
+     * Creates a throughput for steps of the given unit.
+     *
+     * @param unit the unit of the steps of the progress line.
+     * @since 0.3.0
+     */
+    public Throughput(Unit unit) {
+        this(unit, new ExponentiallyWeightedRateEstimator(5, SECONDS));
+    }
+
+    /**
+     * Creates a throughput for steps of the given unit whose current rate is
+     * estimated by the given estimator.
+     *
+     * @param unit the unit of the steps of the progress line.
+     * @param currentRate the estimator for the current rate.
+     * @since 0.3.0
+     */
+    public Throughput(Unit unit, RateEstimator currentRate) {
+        this.unit = unit;
+        this.currentRate = currentRate;
+    }
+
+    /**
+     * Starts the component by telling it the total number of steps.
+     *
+     * @param numberOfSteps the total number of steps.
+     * @since 0.3.0
+     */
+    @Override
+    public void progressLineStarted(int numberOfSteps) {
+        progressLineStarted((long) numberOfSteps);
+    }
+
+    /**
+     * Starts the component by telling it the total number of steps.
+     *
+     * @param numberOfSteps the total number of steps.
+     * @since 0.3.0
+     */
+    @Override
+    public void progressLineStarted(long numberOfSteps) {
+        progressLineResumed(numberOfSteps, 0, 0);
+    }
+
+    /**
+     * Starts the component with the history of a previous run. The average
+     * rate includes the steps and the time of the previous run.
+     *
+     * @param numberOfSteps the total number of steps.
+     * @param step the step that has been reached by the previous run.
+     * @param elapsedTime the time in milliseconds that the previous run
+     *                    needed to reach this step.
+     * @since 0.3.0
+     */
+    @Override
+    public void progressLineResumed(long numberOfSteps, long step, long elapsedTime) {
+        this.numberOfSteps = numberOfSteps;
+        start = getTime() - elapsedTime;
+        currentRate.start(start);
+        appendedCurrent = NOTHING_APPENDED;
+        appendedAverage = NOTHING_APPENDED;
+    }
+
+    /**
+     * Tells the component the new total number of steps.
+     *
+     * @param numberOfSteps the new total number of steps.
+     * @since 0.3.0
+     */
+    @Override
+    public void numberOfStepsChanged(long numberOfSteps) {
+        this.numberOfSteps = numberOfSteps;
+    }
+
+    /**
+     * Returns the current and the average rate. E.g.
+     * <pre>12.3k/s avg 10.1k/s</pre>
+     * After completion it only displays the average rate. E.g.
+     * <pre>avg 10.1k/s</pre>
+     *
+     * @param step the number of the current step.
+     * @return the current and the average rate.
+     * @since 0.3.0
+     */
+    @Override
+    public String getOutputForStep(int step) {
+        return getOutputForStep((long) step);
+    }
+
+    /**
+     * Returns the current and the average rate. E.g.
+     * <pre>12.3k/s avg 10.1k/s</pre>
+     * After completion it only displays the average rate. E.g.
+     * <pre>avg 10.1k/s</pre>
+     *
+     * @param step the number of the current step.
+     * @return the current and the average rate.
+     * @since 0.3.0
+     */
+    @Override
+    public String getOutputForStep(long step) {
+        determineOutput(step);
+        StringBuilder output = new StringBuilder();
+        appendOutput(output);
+        return output.toString();
+    }
+
+    /**
+     * Returns whether the rates for the given step differ from the rates
+     * that have been appended the last time. The rates are compared as they
+     * are displayed, i.e. after rounding.
+     *
+     * @param step the number of the current step.
+     * @return {@code true} if the output changed.
+     * @since 0.3.0
+     */
+    @Override
+    public boolean isOutputChanged(long step) {
+        determineOutput(step);
+        return current != appendedCurrent || average != appendedAverage;
+    }
+
+    /**
+     * Appends the rates that have been determined by
+     * {@link #isOutputChanged(long)} for the same step.
+     *
+     * @param step the number of the current step.
+     * @param output the buffer that the rates are appended to.
+     * @since 0.3.0
+     */
+    @Override
+    public void appendOutputForStep(long step, StringBuilder output) {
+        appendOutput(output);
+        appendedCurrent = current;
+        appendedAverage = average;
+    }
+
+    private void determineOutput(long step) {
+        if (step == 0) {
+            current = NOTHING;
+            average = NOTHING;
+            return;
+        }
+        long time = getTime();
+        currentRate.addSample(step, time);
+        //unlike the AverageRateEstimator the average uses the real elapsed
+        //time, so that a task that finishes within a second is not shown
+        //too slow.
+        average = roundForDisplay((double) step / max(1, time - start));
+        if (step < numberOfSteps
+                || numberOfSteps == ProgressLine.UNKNOWN_NUMBER_OF_STEPS)
+            current = roundForDisplay(currentRate.getStepsPerMillisecond());
+        else
+            current = NOTHING;
+    }
+
+    private long roundForDisplay(double stepsPerMillisecond) {
+        //the suffix is chosen after rounding, so that e.g. 999.96k/s is
+        //displayed as 1.0M/s and not as 1000k/s.
+        double rate = stepsPerMillisecond * MILLISECONDS_PER_SECOND;
+        int indexOfSuffix = 0;
+        long tenths = roundToDisplayedTenths(rate);
+        while (tenths >= 10L * unit.base
+                && indexOfSuffix < unit.suffixes.length - 1) {
+            rate /= unit.base;
+            ++indexOfSuffix;
+            tenths = roundToDisplayedTenths(rate);
+        }
+        return tenths << BITS_OF_SUFFIX | indexOfSuffix;
+    }
+
+    private static long roundToDisplayedTenths(double rate) {
+        //rates of 100 and more are displayed without decimal place.
+        long tenths = Math.round(rate * 10);
+        if (tenths >= 1_000)
+            return 10 * Math.round(rate);
+        else
+            return tenths;
+    }
+
+    private void appendOutput(StringBuilder output) {
+        if (average == NOTHING)
+            return;
+        if (current != NOTHING) {
+            appendRate(current, output);
+            output.append(' ');
+        }
+        output.append("avg ");
+        appendRate(average, output);
+    }
+
+    private void appendRate(long rate, StringBuilder output) {
+        long tenths = rate >>> BITS_OF_SUFFIX;
+        output.append(tenths / 10);
+        if (tenths < 1_000)
+            output.append('.').append(tenths % 10);
+        output.append(unit.suffixes[(int) (rate & ((1 << BITS_OF_SUFFIX) - 1))]);
+    }
+
+    //is used to override time in tests.
+    long getTime() {
+        return NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
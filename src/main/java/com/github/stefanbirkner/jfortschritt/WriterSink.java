@@ -0,0 +1,47 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the progress line to a {@link Writer}. The writer is flushed after
+ * each frame. Like a {@code PrintStream} the sink never throws an
+ * {@code IOException}. Use {@link #checkError()} for checking whether
+ * writing failed.
+ *
+ * @since 0.3.0
+ */
+public class WriterSink implements Sink {
+    private final Writer writer;
+    private volatile boolean error = false;
+
+    /**
+     * Creates a sink that writes to the given writer.
+     *
+     * @param writer the writer that the progress line is written to.
+     * @since 0.3.0
+     */
+    public WriterSink(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void write(char[] chars, int length) {
+        try {
+            writer.write(chars, 0, length);
+            writer.flush();
+        } catch (IOException e) {
+            error = true;
+        }
+    }
+
+    /**
+     * Returns whether writing to the writer failed at least once.
+     *
+     * @return {@code true} if writing to the writer failed at least once.
+     * @since 0.3.0
+     */
+    public boolean checkError() {
+        return error;
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.nio.channels.Channels.newChannel;
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.nio.charset.Charset;
+import org.junit.Test;
+
+public class ChannelSinkTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void sink_writes_the_encoded_chars_to_the_channel() throws Exception {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ChannelSink sink = new ChannelSink(newChannel(stream), UTF_8);
+        sink.write("[=>] äöü".toCharArray(), 8);
+        assertThat(stream.toString("UTF-8")).isEqualTo("[=>] äöü");
+    }
+
+    @Test
+    public void sink_writes_frames_that_are_longer_than_its_buffer()
+            throws Exception {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ChannelSink sink = new ChannelSink(newChannel(stream), UTF_8);
+        char[] chars = new char[1_000];
+        Arrays.fill(chars, 'ä');
+        sink.write(chars, chars.length);
+        assertThat(stream.toString("UTF-8")).isEqualTo(new String(chars));
+    }
+}
@@ -14,4 +14,62 @@ public class CounterTest {
         String output = counter.getOutputForStep(5);
         assertThat(output).isEqualTo("(5/42)");
     }
+
+    @Test
+    public void counter_supports_more_steps_than_an_int() {
+        counter.progressLineStarted(10_000_000_000L);
+        String output = counter.getOutputForStep(5_000_000_000L);
+        assertThat(output).isEqualTo("(5000000000/10000000000)");
+    }
+
+    @Test
+    public void counter_shows_question_mark_if_number_of_steps_is_unknown() {
+        counter.progressLineStarted(ProgressLine.UNKNOWN_NUMBER_OF_STEPS);
+        String output = counter.getOutputForStep(5);
+        assertThat(output).isEqualTo("(5/?)");
+    }
+
+    @Test
+    public void counter_shows_changed_number_of_steps() {
+        counter.progressLineStarted(42);
+        counter.numberOfStepsChanged(50);
+        String output = counter.getOutputForStep(5);
+        assertThat(output).isEqualTo("(5/50)");
+    }
+
+    @Test
+    public void counter_appends_x_out_of_n_steps_put_in_parentheses() {
+        counter.progressLineStarted(42);
+        StringBuilder output = new StringBuilder("before ");
+        counter.appendOutputForStep(5, output);
+        assertThat(output.toString()).isEqualTo("before (5/42)");
+    }
+
+    @Test
+    public void output_is_changed_if_nothing_has_been_appended() {
+        counter.progressLineStarted(42);
+        assertThat(counter.isOutputChanged(0)).isTrue();
+    }
+
+    @Test
+    public void output_is_unchanged_for_the_appended_step() {
+        counter.progressLineStarted(42);
+        counter.appendOutputForStep(5, new StringBuilder());
+        assertThat(counter.isOutputChanged(5)).isFalse();
+    }
+
+    @Test
+    public void output_is_changed_for_another_step() {
+        counter.progressLineStarted(42);
+        counter.appendOutputForStep(5, new StringBuilder());
+        assertThat(counter.isOutputChanged(6)).isTrue();
+    }
+
+    @Test
+    public void output_is_changed_if_number_of_steps_changed() {
+        counter.progressLineStarted(42);
+        counter.appendOutputForStep(5, new StringBuilder());
+        counter.numberOfStepsChanged(50);
+        assertThat(counter.isOutputChanged(5)).isTrue();
+    }
 }
@@ -23,7 +23,9 @@ public class EstimatedTimeTest {
         estimated_time_is_without_seconds_if_it_is_at_least_one_hour(
             9, 10, hours(9), "eta 1h 0m"),
         elapsed_time_is_shown_if_finished(
-            ARBITRARY_NUMBER_OF_STEPS, ARBITRARY_NUMBER_OF_STEPS, seconds(59), "in 59s");
+            ARBITRARY_NUMBER_OF_STEPS, ARBITRARY_NUMBER_OF_STEPS, seconds(59), "in 59s"),
+        nothing_is_shown_if_number_of_steps_is_unknown(
+            9, -1, ARBITRARY_ELAPSED_TIME, "");
 
         final int currentStep;
         final int totalNumberOfSteps;
@@ -59,12 +61,62 @@ public class EstimatedTimeTest {
         assertThat(output).isEqualTo(testCase.expectedOutput);
     }
 
-    private static class EstimatedTimeWithManagedSystemTime extends EstimatedTime {
-        long currentTime = 54984658; //arbitrary time stamp
+    @Test
+    public void estimation_uses_changed_number_of_steps() {
+        EstimatedTimeWithManagedSystemTime estimatedTime = new EstimatedTimeWithManagedSystemTime();
+        estimatedTime.progressLineStarted(10);
+        estimatedTime.currentTime += TestCase.seconds(9);
+        estimatedTime.numberOfStepsChanged(19);
+        String output = estimatedTime.getOutputForStep(9);
+        assertThat(output).isEqualTo("eta 10s");
+    }
 
-        @Override
-        long getTime() {
-            return currentTime;
-        }
+    @Test
+    public void estimation_continues_with_rate_of_previous_run() {
+        EstimatedTimeWithManagedSystemTime estimatedTime = new EstimatedTimeWithManagedSystemTime();
+        estimatedTime.progressLineResumed(20, 9, TestCase.seconds(9));
+        estimatedTime.currentTime += TestCase.seconds(1);
+        String output = estimatedTime.getOutputForStep(10);
+        assertThat(output).isEqualTo("eta 10s");
+    }
+
+    @Test
+    public void estimated_time_is_appended() {
+        EstimatedTimeWithManagedSystemTime estimatedTime = new EstimatedTimeWithManagedSystemTime();
+        estimatedTime.progressLineStarted(10);
+        estimatedTime.currentTime += TestCase.seconds(9);
+        StringBuilder output = new StringBuilder("before ");
+        estimatedTime.isOutputChanged(9);
+        estimatedTime.appendOutputForStep(9, output);
+        assertThat(output.toString()).isEqualTo("before eta 1s");
+    }
+
+    @Test
+    public void output_is_changed_if_nothing_has_been_appended() {
+        EstimatedTimeWithManagedSystemTime estimatedTime = new EstimatedTimeWithManagedSystemTime();
+        estimatedTime.progressLineStarted(10);
+        assertThat(estimatedTime.isOutputChanged(0)).isTrue();
+    }
+
+    @Test
+    public void output_is_unchanged_within_the_same_second() {
+        EstimatedTimeWithManagedSystemTime estimatedTime = new EstimatedTimeWithManagedSystemTime();
+        estimatedTime.progressLineStarted(10);
+        estimatedTime.currentTime += 58_200;
+        estimatedTime.isOutputChanged(10);
+        estimatedTime.appendOutputForStep(10, new StringBuilder());
+        estimatedTime.currentTime += 700;
+        assertThat(estimatedTime.isOutputChanged(10)).isFalse();
+    }
+
+    @Test
+    public void output_is_changed_after_a_second() {
+        EstimatedTimeWithManagedSystemTime estimatedTime = new EstimatedTimeWithManagedSystemTime();
+        estimatedTime.progressLineStarted(10);
+        estimatedTime.currentTime += 58_200;
+        estimatedTime.isOutputChanged(10);
+        estimatedTime.appendOutputForStep(10, new StringBuilder());
+        estimatedTime.currentTime += 1_000;
+        assertThat(estimatedTime.isOutputChanged(10)).isTrue();
     }
 }
@@ -0,0 +1,26 @@
+package com.github.stefanbirkner.jfortschritt;
+
+/**
+ * An {@link EstimatedTime} whose time is set by the test. It is used by the
+ * tests of {@code EstimatedTime} and of the {@link RateEstimator}s.
+ */
+class EstimatedTimeWithManagedSystemTime extends EstimatedTime {
+    long currentTime = 54984658; //arbitrary time stamp
+
+    EstimatedTimeWithManagedSystemTime() {
+    }
+
+    EstimatedTimeWithManagedSystemTime(RateEstimator estimator) {
+        super(estimator);
+    }
+
+    String getOutputForStepAfter(long step, long duration) {
+        currentTime += duration;
+        return getOutputForStep(step);
+    }
+
+    @Override
+    long getTime() {
+        return currentTime;
+    }
+}
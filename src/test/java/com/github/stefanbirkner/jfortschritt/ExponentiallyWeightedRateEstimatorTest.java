@@ -0,0 +1,40 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.*;
+
+import com.github.stefanbirkner.fishbowl.Statement;
+import org.junit.Test;
+
+public class ExponentiallyWeightedRateEstimatorTest {
+    private final EstimatedTimeWithManagedSystemTime estimatedTime
+        = new EstimatedTimeWithManagedSystemTime(new ExponentiallyWeightedRateEstimator(1, SECONDS));
+
+    @Test
+    public void estimation_follows_changes_of_the_rate() {
+        estimatedTime.progressLineStarted(100);
+        estimatedTime.getOutputForStepAfter(10, 100_000); //slow warm-up
+        estimatedTime.getOutputForStepAfter(20, 1_000);
+        String output = estimatedTime.getOutputForStepAfter(30, 1_000);
+        assertThat(output).isEqualTo("eta 9s");
+    }
+
+    @Test
+    public void estimation_is_empty_if_no_time_elapsed() {
+        estimatedTime.progressLineStarted(100);
+        String output = estimatedTime.getOutputForStepAfter(10, 0);
+        assertThat(output).isEmpty();
+    }
+
+    @Test
+    public void time_constant_must_be_positive() {
+        Throwable e = exceptionThrownBy(new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                new ExponentiallyWeightedRateEstimator(0, SECONDS);
+            }
+        });
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.stefanbirkner.fishbowl.Statement;
+import java.io.StringWriter;
+import org.junit.After;
+import org.junit.Test;
+
+public class JvmResourcesTest {
+    private final JvmResources resources = new JvmResources(1, SECONDS);
+
+    @After
+    public void stopResources() {
+        resources.stop();
+    }
+
+    @Test
+    public void part_shows_heap_gc_and_cpu_usage_after_start() {
+        resources.progressLineStarted(10L);
+        String output = resources.getOutputForStep(1L);
+        assertThat(output).matches("heap \\d+% gc 0%( cpu \\d+%)?");
+    }
+
+    @Test
+    public void output_is_changed_if_nothing_has_been_appended() {
+        resources.progressLineStarted(10L);
+        assertThat(resources.isOutputChanged(1)).isTrue();
+    }
+
+    @Test
+    public void output_is_unchanged_until_next_sample() {
+        resources.progressLineStarted(10L);
+        resources.isOutputChanged(1);
+        resources.appendOutputForStep(1, new StringBuilder());
+        assertThat(resources.isOutputChanged(2)).isFalse();
+    }
+
+    @Test
+    public void output_is_changed_after_next_sample() {
+        resources.progressLineStarted(10L);
+        resources.isOutputChanged(1);
+        resources.appendOutputForStep(1, new StringBuilder());
+        resources.sample();
+        assertThat(resources.isOutputChanged(2)).isTrue();
+    }
+
+    @Test
+    public void output_is_changed_after_restart() {
+        resources.progressLineStarted(10L);
+        resources.isOutputChanged(1);
+        resources.appendOutputForStep(1, new StringBuilder());
+        resources.progressLineStarted(10L);
+        assertThat(resources.isOutputChanged(0)).isTrue();
+    }
+
+    @Test
+    public void part_is_sampled_in_the_background() throws Exception {
+        JvmResources resources = new JvmResources(1, MILLISECONDS);
+        resources.progressLineStarted(10L);
+        String firstSample = resources.getOutputForStep(1L);
+        long end = System.currentTimeMillis() + 5_000;
+        while (resources.getOutputForStep(1L) == firstSample
+                && System.currentTimeMillis() < end)
+            Thread.sleep(1);
+        resources.stop();
+        assertThat(resources.getOutputForStep(1L)).isNotSameAs(firstSample);
+    }
+
+    @Test
+    public void sampling_stops_when_progress_line_is_complete() {
+        ProgressLine progressLine = new ProgressLine(
+            new WriterSink(new StringWriter()), resources);
+        progressLine.startWithNumberOfSteps(2);
+        progressLine.moveForward(2);
+        assertThat(resources.isSampling()).isFalse();
+    }
+
+    @Test
+    public void sampling_stops_when_incomplete_progress_line_is_closed() {
+        ProgressLine progressLine = new ProgressLine(
+            new WriterSink(new StringWriter()), resources);
+        progressLine.startWithNumberOfSteps(2);
+        progressLine.moveForward();
+        progressLine.close();
+        assertThat(resources.isSampling()).isFalse();
+    }
+
+    @Test
+    public void sampling_stops_when_asynchronously_rendered_progress_line_is_closed() {
+        ProgressLine progressLine = new ProgressLine(
+            new WriterSink(new StringWriter()), resources);
+        progressLine.setAsynchronousRendering(true);
+        progressLine.startWithNumberOfSteps(2);
+        progressLine.close();
+        assertThat(resources.isSampling()).isFalse();
+    }
+
+    @Test
+    public void sample_interval_must_be_positive() {
+        Throwable exception = exceptionThrownBy(new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                new JvmResources(0, SECONDS);
+            }
+        });
+        assertThat(exception)
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("You cannot set the sample interval to 0 because it must be positive.");
+    }
+}
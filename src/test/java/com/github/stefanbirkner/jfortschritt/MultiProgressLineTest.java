@@ -0,0 +1,170 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.*;
+
+import com.github.stefanbirkner.fishbowl.Statement;
+import java.io.StringWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.SystemErrRule;
+
+public class MultiProgressLineTest {
+    private static final String ERASE_REST_OF_LINE = "\u001b[K";
+    private final StringWriter writer = new StringWriter();
+    private final MultiProgressLine multiProgressLine
+        = new MultiProgressLine(new WriterSink(writer));
+
+    @Rule
+    public final SystemErrRule systemErrRule = new SystemErrRule().enableLog().mute();
+
+    @Test
+    public void progress_lines_do_not_render_themselves() {
+        ProgressLine progressLine = multiProgressLine.addProgressLine(new Counter());
+        progressLine.startWithNumberOfSteps(2);
+        progressLine.moveForward();
+        assertThat(writer.toString()).isEmpty();
+    }
+
+    @Test
+    public void each_progress_line_is_rendered_at_its_own_line() {
+        ProgressLine first = multiProgressLine.addProgressLine(new Counter());
+        ProgressLine second = multiProgressLine.addProgressLine(new Counter());
+        first.startWithNumberOfSteps(2);
+        second.startWithNumberOfSteps(4);
+        multiProgressLine.render();
+        String[] lines = writer.toString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).endsWith("(0/2)" + ERASE_REST_OF_LINE);
+        assertThat(lines[1]).endsWith("(0/4)" + ERASE_REST_OF_LINE);
+    }
+
+    @Test
+    public void progress_line_that_is_not_started_is_rendered_as_empty_line() {
+        multiProgressLine.addProgressLine(new Counter());
+        multiProgressLine.render();
+        assertThat(writer.toString()).isEqualTo(ERASE_REST_OF_LINE + "\n");
+    }
+
+    @Test
+    public void only_changed_progress_line_is_redrawn() {
+        ProgressLine first = multiProgressLine.addProgressLine(new Counter());
+        ProgressLine second = multiProgressLine.addProgressLine(new Counter());
+        first.startWithNumberOfSteps(2);
+        second.startWithNumberOfSteps(4);
+        multiProgressLine.render();
+        writer.getBuffer().setLength(0);
+        first.moveForward();
+        multiProgressLine.render();
+        assertThat(writer.toString())
+            .startsWith("\u001b[2A\r")
+            .contains("(1/2)" + ERASE_REST_OF_LINE)
+            .doesNotContain("/4)")
+            .endsWith("\u001b[2B\r");
+    }
+
+    @Test
+    public void nothing_is_written_if_no_progress_line_changed() {
+        ProgressLine progressLine = multiProgressLine.addProgressLine(new Counter());
+        progressLine.startWithNumberOfSteps(2);
+        multiProgressLine.render();
+        writer.getBuffer().setLength(0);
+        multiProgressLine.render();
+        assertThat(writer.toString()).isEmpty();
+    }
+
+    @Test
+    public void lines_below_a_removed_progress_line_move_up() {
+        ProgressLine first = multiProgressLine.addProgressLine(new Counter());
+        ProgressLine second = multiProgressLine.addProgressLine(new Counter());
+        first.startWithNumberOfSteps(2);
+        second.startWithNumberOfSteps(4);
+        multiProgressLine.render();
+        writer.getBuffer().setLength(0);
+        multiProgressLine.removeProgressLine(first);
+        multiProgressLine.render();
+        assertThat(writer.toString())
+            .startsWith("\u001b[2A\r")
+            .contains("(0/4)")
+            .endsWith("\u001b[1A\r\u001b[J");
+    }
+
+    @Test
+    public void block_shrinks_when_a_progress_line_is_removed() {
+        ProgressLine first = multiProgressLine.addProgressLine(new Counter());
+        ProgressLine second = multiProgressLine.addProgressLine(new Counter());
+        first.startWithNumberOfSteps(2);
+        second.startWithNumberOfSteps(4);
+        multiProgressLine.render();
+        multiProgressLine.removeProgressLine(second);
+        multiProgressLine.render();
+        writer.getBuffer().setLength(0);
+        first.moveForward();
+        multiProgressLine.render();
+        assertThat(writer.toString()).startsWith("\u001b[1A\r");
+    }
+
+    @Test
+    public void other_progress_lines_are_rendered_if_a_part_throws_an_exception() {
+        ProgressLine first = multiProgressLine.addProgressLine(new FailingPart());
+        ProgressLine second = multiProgressLine.addProgressLine(new Counter());
+        first.startWithNumberOfSteps(2);
+        second.startWithNumberOfSteps(4);
+        Throwable e = exceptionThrownBy(new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                multiProgressLine.render();
+            }
+        });
+        assertThat(e).hasMessage("dummy exception");
+        assertThat(writer.toString()).contains("(0/4)" + ERASE_REST_OF_LINE);
+    }
+
+    @Test
+    public void rendering_continues_after_a_part_threw_an_exception()
+            throws Exception {
+        FailingPart part = new FailingPart();
+        ProgressLine progressLine = multiProgressLine.addProgressLine(part);
+        progressLine.startWithNumberOfSteps(2);
+        multiProgressLine.start(1, MILLISECONDS);
+        long end = System.currentTimeMillis() + 5_000;
+        while (!systemErrRule.getLog().contains("dummy exception")
+                && System.currentTimeMillis() < end)
+            Thread.sleep(1);
+        part.failing = false;
+        while (!writer.toString().contains("step 0")
+                && System.currentTimeMillis() < end)
+            Thread.sleep(1);
+        multiProgressLine.stop();
+        assertThat(systemErrRule.getLog()).contains("dummy exception");
+        assertThat(writer.toString()).contains("step 0");
+    }
+
+    @Test
+    public void stop_renders_the_final_state() {
+        ProgressLine progressLine = multiProgressLine.addProgressLine(new Counter());
+        multiProgressLine.start();
+        progressLine.startWithNumberOfSteps(1);
+        progressLine.moveForward();
+        multiProgressLine.stop();
+        //the row is either new or redrawn, depending on whether the renderer
+        //rendered before the progress line has been started.
+        assertThat(writer.toString()).contains("(1/1)" + ERASE_REST_OF_LINE);
+    }
+
+    private static class FailingPart implements ProgressLinePart {
+        volatile boolean failing = true;
+
+        @Override
+        public void progressLineStarted(int numberOfSteps) {
+        }
+
+        @Override
+        public String getOutputForStep(int step) {
+            if (failing)
+                throw new RuntimeException("dummy exception");
+            return "step " + step;
+        }
+    }
+}
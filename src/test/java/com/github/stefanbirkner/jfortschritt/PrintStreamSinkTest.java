@@ -0,0 +1,30 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import org.junit.Test;
+
+public class PrintStreamSinkTest {
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    @Test
+    public void sink_uses_the_charset_of_the_stream() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream stream = new PrintStream(bytes, true, "UTF-16BE");
+        PrintStreamSink sink = new PrintStreamSink(stream);
+        sink.write("[=>] äöü and more".toCharArray(), 8);
+        assertThat(bytes.toString("UTF-16BE")).isEqualTo("[=>] äöü");
+    }
+
+    @Test
+    public void sink_uses_the_given_charset() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream stream = new PrintStream(bytes, true, "UTF-8");
+        PrintStreamSink sink = new PrintStreamSink(stream, ISO_8859_1);
+        sink.write("[=>] äöü".toCharArray(), 8);
+        assertThat(bytes.toString("ISO-8859-1")).isEqualTo("[=>] äöü");
+    }
+}
@@ -0,0 +1,173 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.stefanbirkner.fishbowl.Statement;
+import java.io.File;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProgressAggregatorTest {
+    private static final long TIMEOUT = 30_000;
+    private final ProgressLine progressLine = new ProgressLine(
+        new WriterSink(new StringWriter()));
+    private final ProgressAggregator aggregator = new ProgressAggregator(progressLine, 2);
+    private final List<ProgressReporter> reporters = new ArrayList<>();
+
+    @Before
+    public void startAggregator() throws Exception {
+        aggregator.start();
+    }
+
+    @After
+    public void stopAggregator() {
+        for (ProgressReporter reporter : reporters)
+            reporter.close();
+        aggregator.stop();
+    }
+
+    @Test
+    public void number_of_steps_is_unknown_until_all_shards_joined() throws Exception {
+        ProgressReporter first = join("first");
+        first.onSnapshot(snapshot(10, 3));
+        awaitCurrentStep(3);
+        assertThat(progressLine.getSnapshot().getNumberOfSteps())
+            .isEqualTo(ProgressLine.UNKNOWN_NUMBER_OF_STEPS);
+    }
+
+    @Test
+    public void progress_line_shows_combined_progress_of_all_shards() throws Exception {
+        join("first").onSnapshot(snapshot(10, 3));
+        join("second").onSnapshot(snapshot(20, 4));
+        awaitCurrentStep(7);
+        assertThat(progressLine.getSnapshot().getNumberOfSteps()).isEqualTo(30);
+    }
+
+    @Test
+    public void number_of_steps_is_unknown_while_a_shard_does_not_know_its_number_of_steps()
+            throws Exception {
+        join("first").onSnapshot(snapshot(10, 3));
+        join("second").onSnapshot(
+            snapshot(ProgressLine.UNKNOWN_NUMBER_OF_STEPS, 4));
+        awaitCurrentStep(7);
+        assertThat(progressLine.getSnapshot().getNumberOfSteps())
+            .isEqualTo(ProgressLine.UNKNOWN_NUMBER_OF_STEPS);
+    }
+
+    @Test
+    public void growing_number_of_steps_of_a_shard_increases_number_of_steps()
+            throws Exception {
+        ProgressReporter first = join("first");
+        first.onSnapshot(snapshot(10, 3));
+        join("second").onSnapshot(snapshot(20, 4));
+        first.onSnapshot(snapshot(15, 5));
+        awaitCurrentStep(9);
+        assertThat(progressLine.getSnapshot().getNumberOfSteps()).isEqualTo(35);
+    }
+
+    @Test
+    public void progress_line_is_complete_when_all_shards_are_complete() throws Exception {
+        join("first").onSnapshot(snapshot(10, 10));
+        join("second").onSnapshot(snapshot(20, 20));
+        awaitCurrentStep(30);
+        assertThat(progressLine.getSnapshot().isComplete()).isTrue();
+    }
+
+    @Test
+    public void shard_keeps_its_steps_when_its_worker_leaves() throws Exception {
+        ProgressReporter first = join("first");
+        first.onSnapshot(snapshot(10, 3));
+        first.close();
+        join("second").onSnapshot(snapshot(20, 4));
+        awaitCurrentStep(7);
+        assertThat(progressLine.getSnapshot().getNumberOfSteps()).isEqualTo(30);
+    }
+
+    @Test
+    public void worker_that_continues_a_shard_adds_only_new_steps() throws Exception {
+        ProgressReporter first = join("first");
+        first.onSnapshot(snapshot(10, 3));
+        first.close();
+        join("first").onSnapshot(snapshot(10, 5));
+        join("second").onSnapshot(snapshot(20, 4));
+        awaitCurrentStep(9);
+        assertThat(progressLine.getSnapshot().getNumberOfSteps()).isEqualTo(30);
+    }
+
+    @Test
+    public void aggregator_counts_connected_workers() throws Exception {
+        join("first").onSnapshot(snapshot(10, 3));
+        join("second").onSnapshot(snapshot(20, 4));
+        awaitCurrentStep(7);
+        assertThat(aggregator.getNumberOfWorkers()).isEqualTo(2);
+    }
+
+    @Test
+    public void aggregator_combines_progress_of_worker_processes() throws Exception {
+        Process first = startWorker(aggregator.getPort(), "first", 100);
+        Process second = startWorker(aggregator.getPort(), "second", 200);
+        try {
+            long end = System.currentTimeMillis() + TIMEOUT;
+            while (!progressLine.getSnapshot().isComplete()
+                    && System.currentTimeMillis() < end)
+                Thread.sleep(10);
+            assertThat(progressLine.getSnapshot().getNumberOfSteps()).isEqualTo(300);
+            assertThat(progressLine.getSnapshot().isComplete()).isTrue();
+        } finally {
+            first.destroy();
+            second.destroy();
+        }
+    }
+
+    @Test
+    public void number_of_shards_must_be_positive() {
+        Throwable exception = exceptionThrownBy(new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                new ProgressAggregator(progressLine, 0);
+            }
+        });
+        assertThat(exception)
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("You cannot set the number of shards to 0 because it must be positive.");
+    }
+
+    private ProgressReporter join(String name) throws Exception {
+        ProgressReporter reporter = new ProgressReporter(name, aggregator.getPort());
+        reporters.add(reporter);
+        return reporter;
+    }
+
+    private ProgressSnapshot snapshot(long numberOfSteps, long currentStep) {
+        long time = System.currentTimeMillis();
+        return new ProgressSnapshot(numberOfSteps, currentStep, time, time, 0);
+    }
+
+    private void awaitCurrentStep(long step) throws Exception {
+        long end = System.currentTimeMillis() + TIMEOUT;
+        while (progressLine.getSnapshot().getCurrentStep() < step
+                && System.currentTimeMillis() < end)
+            Thread.sleep(1);
+        //let the aggregator read messages that were sent after the steps.
+        Thread.sleep(50);
+        assertThat(progressLine.getSnapshot().getCurrentStep()).isEqualTo(step);
+    }
+
+    private Process startWorker(int port, String name, int numberOfSteps)
+            throws Exception {
+        String java = System.getProperty("java.home")
+            + File.separator + "bin" + File.separator + "java";
+        return new ProcessBuilder(
+                java, "-cp", System.getProperty("java.class.path"),
+                ProgressWorker.class.getName(),
+                Integer.toString(port), name, Integer.toString(numberOfSteps))
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+            .start();
+    }
+}
@@ -0,0 +1,143 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.*;
+
+import com.github.stefanbirkner.fishbowl.Statement;
+import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.After;
+import org.junit.Test;
+
+public class ProgressExecutorServiceTest {
+    private final StringWriter writer = new StringWriter();
+    private final ProgressLine progressLine
+        = new ProgressLine(new WriterSink(writer), new Counter());
+    private final ExecutorService underlyingExecutor
+        = Executors.newFixedThreadPool(4);
+
+    @After
+    public void shutdownExecutor() {
+        underlyingExecutor.shutdownNow();
+    }
+
+    @Test
+    public void progress_line_is_started_with_the_number_of_tasks() {
+        new ProgressExecutorService(underlyingExecutor, progressLine, 42);
+        assertThat(writer.toString()).endsWith("(0/42)");
+    }
+
+    @Test
+    public void progress_line_is_complete_when_all_tasks_are_finished()
+            throws Exception {
+        ExecutorService executor
+            = new ProgressExecutorService(underlyingExecutor, progressLine, 100);
+        for (int i = 0; i < 100; ++i)
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+        executor.shutdown();
+        executor.awaitTermination(10, SECONDS);
+        assertThat(writer.toString()).endsWith("(100/100)" + System.lineSeparator());
+    }
+
+    @Test
+    public void tasks_that_never_started_are_returned_and_counted_by_shutdown_now()
+            throws Exception {
+        final CountDownLatch finishFirstTask = new CountDownLatch(1);
+        final CountDownLatch firstTaskStarted = new CountDownLatch(1);
+        ExecutorService executor = new ProgressExecutorService(
+            Executors.newSingleThreadExecutor(), progressLine, 3);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                firstTaskStarted.countDown();
+                try {
+                    finishFirstTask.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        Runnable second = new NoOpTask();
+        Runnable third = new NoOpTask();
+        executor.execute(second);
+        executor.execute(third);
+        firstTaskStarted.await();
+        assertThat(executor.shutdownNow()).containsExactly(second, third);
+        executor.awaitTermination(10, SECONDS);
+        assertThat(writer.toString()).endsWith("(3/3)" + System.lineSeparator());
+    }
+
+    @Test
+    public void failed_tasks_are_counted() throws Exception {
+        ExecutorService executor
+            = new ProgressExecutorService(underlyingExecutor, progressLine, 1);
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                throw new RuntimeException("dummy exception");
+            }
+        });
+        executor.shutdown();
+        executor.awaitTermination(10, SECONDS);
+        assertThat(writer.toString()).endsWith("(1/1)" + System.lineSeparator());
+    }
+
+    @Test
+    public void cancelled_tasks_are_counted() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService executor = new ProgressExecutorService(
+            Executors.newSingleThreadExecutor(), progressLine, 2);
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        Future<?> cancelledTask = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        cancelledTask.cancel(false);
+        latch.countDown();
+        executor.shutdown();
+        executor.awaitTermination(10, SECONDS);
+        assertThat(writer.toString()).endsWith("(2/2)" + System.lineSeparator());
+    }
+
+    @Test
+    public void more_tasks_than_announced_are_rejected() {
+        final ExecutorService executor
+            = new ProgressExecutorService(underlyingExecutor, progressLine, 0);
+        Throwable e = exceptionThrownBy(new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                    }
+                });
+            }
+        });
+        assertThat(e).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    private static class NoOpTask implements Runnable {
+        @Override
+        public void run() {
+        }
+    }
+}
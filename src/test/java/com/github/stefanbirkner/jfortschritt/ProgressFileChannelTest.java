@@ -0,0 +1,82 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ProgressFileChannelTest {
+    private static final int FILE_SIZE = 10_000;
+    private static final int CHUNK_SIZE = 4_096;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final StringWriter writer = new StringWriter();
+    private final ProgressLine progressLine
+        = new ProgressLine(new WriterSink(writer), new Counter());
+
+    @Test
+    public void transfer_to_another_channel_moves_progress_line_forward_per_chunk()
+            throws Exception {
+        File source = createFileWithRandomContent();
+        File target = folder.newFile();
+        progressLine.startWithNumberOfSteps(FILE_SIZE);
+        try (FileChannel sourceChannel = new ProgressFileChannel(
+                FileChannel.open(source.toPath(), READ), progressLine, CHUNK_SIZE);
+             FileChannel targetChannel = FileChannel.open(target.toPath(), WRITE)) {
+            sourceChannel.transferTo(0, FILE_SIZE, targetChannel);
+        }
+        assertThat(target).hasContentEqualTo(source);
+        assertThat(writer.toString())
+            .contains("(4096/10000)")
+            .contains("(8192/10000)")
+            .endsWith("(10000/10000)" + System.lineSeparator());
+    }
+
+    @Test
+    public void transfer_from_another_channel_moves_progress_line_forward_per_chunk()
+            throws Exception {
+        File source = createFileWithRandomContent();
+        File target = folder.newFile();
+        progressLine.startWithNumberOfSteps(FILE_SIZE);
+        try (FileChannel sourceChannel = FileChannel.open(source.toPath(), READ);
+             FileChannel targetChannel = new ProgressFileChannel(
+                 FileChannel.open(target.toPath(), WRITE), progressLine, CHUNK_SIZE)) {
+            targetChannel.transferFrom(sourceChannel, 0, FILE_SIZE);
+        }
+        assertThat(target).hasContentEqualTo(source);
+        assertThat(writer.toString())
+            .contains("(4096/10000)")
+            .endsWith("(10000/10000)" + System.lineSeparator());
+    }
+
+    @Test
+    public void progress_line_is_moved_forward_by_the_number_of_bytes_read()
+            throws Exception {
+        File source = createFileWithRandomContent();
+        progressLine.startWithNumberOfSteps(FILE_SIZE);
+        try (FileChannel channel = new ProgressFileChannel(
+                FileChannel.open(source.toPath(), READ), progressLine)) {
+            channel.read(ByteBuffer.allocate(100));
+        }
+        assertThat(writer.toString()).endsWith("(100/10000)");
+    }
+
+    private File createFileWithRandomContent() throws Exception {
+        byte[] content = new byte[FILE_SIZE];
+        new Random(42).nextBytes(content);
+        File file = folder.newFile();
+        Files.write(file.toPath(), content);
+        return file;
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static org.assertj.core.api.Assertions.*;
+
+import com.github.stefanbirkner.fishbowl.Statement;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.SystemOutRule;
+import org.junit.rules.TemporaryFolder;
+
+public class ProgressFileTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public final SystemOutRule systemOutRule = new SystemOutRule().enableLog().mute();
+
+    private final StringWriter writer = new StringWriter();
+
+    @Test
+    public void state_of_progress_line_is_published_to_file() throws Exception {
+        File file = folder.newFile();
+        ProgressLine progressLine = new ProgressLine(new WriterSink(writer));
+        progressLine.publishTo(file);
+        progressLine.startWithNumberOfSteps(10);
+        progressLine.moveForward(4);
+        ProgressSnapshot snapshot = ProgressFile.read(file);
+        assertThat(snapshot.getNumberOfSteps()).isEqualTo(10);
+        assertThat(snapshot.getCurrentStep()).isEqualTo(4);
+        assertThat(snapshot.isComplete()).isFalse();
+    }
+
+    @Test
+    public void unknown_number_of_steps_is_published() throws Exception {
+        File file = folder.newFile();
+        ProgressLine progressLine = new ProgressLine(new WriterSink(writer));
+        progressLine.publishTo(file);
+        progressLine.startWithUnknownNumberOfSteps();
+        progressLine.moveForward();
+        assertThat(ProgressFile.read(file).getNumberOfSteps())
+            .isEqualTo(ProgressLine.UNKNOWN_NUMBER_OF_STEPS);
+    }
+
+    @Test
+    public void progress_line_is_resumed_at_the_state_of_the_file() throws Exception {
+        File file = folder.newFile();
+        ProgressLine previousRun = new ProgressLine(new WriterSink(new StringWriter()));
+        previousRun.publishTo(file);
+        previousRun.startWithNumberOfSteps(10);
+        previousRun.moveForward(4);
+        ProgressLine progressLine = new ProgressLine(new WriterSink(writer), new Counter());
+        progressLine.publishTo(file);
+        progressLine.resumeFrom(file);
+        progressLine.moveForward();
+        assertThat(writer.toString()).endsWith("(5/10)");
+        assertThat(ProgressFile.read(file).getCurrentStep()).isEqualTo(5);
+    }
+
+    @Test
+    public void progress_line_is_started_with_number_of_steps_on_first_run()
+            throws Exception {
+        File file = new File(folder.getRoot(), "job.progress");
+        ProgressLine progressLine = new ProgressLine(new WriterSink(writer), new Counter());
+        progressLine.publishTo(file);
+        progressLine.resumeFrom(file, 10);
+        progressLine.moveForward();
+        assertThat(writer.toString()).endsWith("(1/10)");
+        assertThat(ProgressFile.read(file).getCurrentStep()).isEqualTo(1);
+    }
+
+    @Test
+    public void progress_line_is_started_with_unknown_number_of_steps_on_first_run()
+            throws Exception {
+        File file = new File(folder.getRoot(), "job.progress");
+        ProgressLine progressLine = new ProgressLine(new WriterSink(writer));
+        progressLine.resumeFrom(file);
+        progressLine.moveForward();
+        assertThat(progressLine.getSnapshot().getNumberOfSteps())
+            .isEqualTo(ProgressLine.UNKNOWN_NUMBER_OF_STEPS);
+        assertThat(progressLine.getSnapshot().getCurrentStep()).isEqualTo(1);
+    }
+
+    @Test
+    public void file_without_state_is_rejected() throws Exception {
+        final File file = folder.newFile();
+        new ProgressLine(new WriterSink(writer)).publishTo(file);
+        Throwable e = exceptionThrownBy(new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                ProgressFile.read(file);
+            }
+        });
+        assertThat(e)
+            .isInstanceOf(IOException.class)
+            .hasMessage("The progress file " + file
+                + " has no state because no progress line published its state to it.");
+    }
+
+    @Test
+    public void file_that_is_not_a_progress_file_is_rejected() throws Exception {
+        final File file = folder.newFile();
+        Files.write(file.toPath(), new byte[64]);
+        Throwable e = exceptionThrownBy(new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                ProgressFile.read(file);
+            }
+        });
+        assertThat(e)
+            .isInstanceOf(IOException.class)
+            .hasMessage("The file " + file + " is not a progress file.");
+    }
+
+    @Test
+    public void command_line_tool_prints_state() throws Exception {
+        File file = folder.newFile();
+        ProgressLine progressLine = new ProgressLine(new WriterSink(writer));
+        progressLine.publishTo(file);
+        progressLine.startWithNumberOfSteps(10);
+        progressLine.moveForward(4);
+        ProgressFile.main(file.getPath());
+        assertThat(systemOutRule.getLogWithNormalizedLineSeparator())
+            .startsWith("40% (4/10) ");
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import org.junit.Test;
+
+public class ProgressInputStreamTest {
+    private final StringWriter writer = new StringWriter();
+    private final ProgressLine progressLine
+        = new ProgressLine(new WriterSink(writer), new Counter());
+
+    @Test
+    public void progress_line_is_moved_forward_by_the_number_of_bytes_read()
+            throws Exception {
+        progressLine.startWithNumberOfSteps(10);
+        InputStream stream = new ProgressInputStream(
+            new ByteArrayInputStream(new byte[10]), progressLine);
+        stream.read();
+        stream.read(new byte[4]);
+        assertThat(writer.toString()).endsWith("(5/10)");
+    }
+
+    @Test
+    public void progress_line_is_moved_forward_by_the_number_of_bytes_skipped()
+            throws Exception {
+        progressLine.startWithNumberOfSteps(10);
+        InputStream stream = new ProgressInputStream(
+            new ByteArrayInputStream(new byte[10]), progressLine);
+        stream.skip(3);
+        assertThat(writer.toString()).endsWith("(3/10)");
+    }
+
+    @Test
+    public void progress_line_is_complete_after_reading_the_whole_stream()
+            throws Exception {
+        progressLine.startWithNumberOfSteps(10);
+        InputStream stream = new ProgressInputStream(
+            new ByteArrayInputStream(new byte[10]), progressLine);
+        while (stream.read(new byte[3]) != -1);
+        assertThat(writer.toString())
+            .endsWith("(10/10)" + System.lineSeparator());
+    }
+
+    @Test
+    public void stream_does_not_support_mark() {
+        InputStream stream = new ProgressInputStream(
+            new ByteArrayInputStream(new byte[10]), progressLine);
+        assertThat(stream.markSupported()).isFalse();
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.StringWriter;
+import org.junit.Test;
+
+public class ProgressIterableTest {
+    private final StringWriter writer = new StringWriter();
+    private final ProgressLine progressLine
+        = new ProgressLine(new WriterSink(writer), new Counter());
+
+    @Test
+    public void progress_line_is_started_with_the_size_of_the_collection() {
+        ProgressIterable.startWithElementsOf(asList(1, 2, 3), progressLine);
+        assertThat(writer.toString()).endsWith("(0/3)");
+    }
+
+    @Test
+    public void progress_line_is_complete_after_iterating_over_all_elements() {
+        for (Integer ignored : ProgressIterable.startWithElementsOf(
+                asList(1, 2, 3), progressLine));
+        assertThat(writer.toString()).endsWith("(3/3)" + System.lineSeparator());
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.util.Iterator;
+import org.junit.Test;
+
+public class ProgressIteratorTest {
+    private final StringWriter writer = new StringWriter();
+    private final ProgressLine progressLine
+        = new ProgressLine(new WriterSink(writer), new Counter());
+
+    @Test
+    public void progress_line_is_moved_forward_for_each_element() {
+        progressLine.startWithNumberOfSteps(5);
+        Iterator<Integer> iterator = new ProgressIterator<>(
+            asList(1, 2, 3, 4, 5).iterator(), progressLine);
+        iterator.next();
+        iterator.next();
+        assertThat(writer.toString()).endsWith("(2/5)");
+    }
+
+    @Test
+    public void progress_line_is_moved_forward_for_each_batch() {
+        progressLine.startWithNumberOfSteps(5);
+        Iterator<Integer> iterator = new ProgressIterator<>(
+            asList(1, 2, 3, 4, 5).iterator(), progressLine, 2);
+        iterator.next();
+        iterator.next();
+        iterator.next();
+        assertThat(writer.toString()).endsWith("(2/5)");
+    }
+
+    @Test
+    public void remaining_elements_are_reported_when_iterator_is_exhausted() {
+        progressLine.startWithNumberOfSteps(5);
+        Iterator<Integer> iterator = new ProgressIterator<>(
+            asList(1, 2, 3, 4, 5).iterator(), progressLine, 2);
+        while (iterator.hasNext())
+            iterator.next();
+        assertThat(writer.toString()).endsWith("(5/5)" + System.lineSeparator());
+    }
+
+    @Test
+    public void unfinished_batch_is_reported_when_iterator_is_closed() {
+        progressLine.startWithNumberOfSteps(5);
+        try (ProgressIterator<Integer> iterator = new ProgressIterator<>(
+                asList(1, 2, 3, 4, 5).iterator(), progressLine, 10)) {
+            while (iterator.hasNext())
+                if (iterator.next() == 3)
+                    break;
+        }
+        assertThat(progressLine.getSnapshot().getCurrentStep()).isEqualTo(3);
+    }
+}
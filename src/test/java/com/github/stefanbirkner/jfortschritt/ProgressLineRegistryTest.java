@@ -0,0 +1,169 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static com.github.stefanbirkner.jfortschritt.ProgressLineRegistry.getObjectName;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanRegistration;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.After;
+import org.junit.Test;
+
+public class ProgressLineRegistryTest {
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    private final ProgressLine progressLine = createProgressLine();
+
+    @After
+    public void unregisterProgressLine() {
+        ProgressLineRegistry.unregister(progressLine);
+    }
+
+    @Test
+    public void started_progress_line_is_registered() {
+        progressLine.registerMBean("started line");
+        progressLine.startWithNumberOfSteps(10);
+        assertThat(ProgressLineRegistry.getProgressLines())
+            .containsEntry("started line", progressLine);
+        assertThat(server.isRegistered(getObjectName("started line"))).isTrue();
+    }
+
+    @Test
+    public void progress_line_is_not_registered_before_start() {
+        progressLine.registerMBean("new line");
+        assertThat(server.isRegistered(getObjectName("new line"))).isFalse();
+    }
+
+    @Test
+    public void mbean_provides_state_of_progress_line() throws Exception {
+        progressLine.registerMBean("running line");
+        progressLine.startWithNumberOfSteps(10);
+        progressLine.moveForward(4);
+        assertThat(server.getAttribute(getObjectName("running line"), "CurrentStep"))
+            .isEqualTo(4L);
+        assertThat(server.getAttribute(getObjectName("running line"), "NumberOfSteps"))
+            .isEqualTo(10L);
+        assertThat(server.getAttribute(getObjectName("running line"), "Percentage"))
+            .isEqualTo(40d);
+        assertThat(server.getAttribute(getObjectName("running line"), "Stalled"))
+            .isEqualTo(false);
+    }
+
+    @Test
+    public void mbean_provides_unknown_number_of_steps() throws Exception {
+        progressLine.registerMBean("unknown line");
+        progressLine.startWithUnknownNumberOfSteps();
+        assertThat(server.getAttribute(getObjectName("unknown line"), "NumberOfSteps"))
+            .isEqualTo(-1L);
+        assertThat(server.getAttribute(getObjectName("unknown line"), "Percentage"))
+            .isEqualTo(-1d);
+    }
+
+    @Test
+    public void complete_progress_line_is_unregistered() {
+        progressLine.registerMBean("complete line");
+        progressLine.startWithNumberOfSteps(10);
+        progressLine.moveForward(10);
+        assertThat(ProgressLineRegistry.getProgressLines())
+            .doesNotContainKey("complete line");
+        assertThat(server.isRegistered(getObjectName("complete line"))).isFalse();
+    }
+
+    @Test
+    public void explicitly_completed_progress_line_is_unregistered() {
+        progressLine.registerMBean("explicitly completed line");
+        progressLine.startWithUnknownNumberOfSteps();
+        progressLine.moveForward(3);
+        progressLine.complete();
+        assertThat(server.isRegistered(getObjectName("explicitly completed line")))
+            .isFalse();
+    }
+
+    @Test
+    public void progress_line_without_steps_is_not_registered() {
+        progressLine.registerMBean("empty line");
+        progressLine.startWithNumberOfSteps(0);
+        assertThat(server.isRegistered(getObjectName("empty line"))).isFalse();
+    }
+
+    @Test
+    public void complete_progress_line_of_multi_progress_line_is_unregistered() {
+        ProgressLine progressLine = new MultiProgressLine(
+            new WriterSink(new StringWriter())).addProgressLine();
+        progressLine.registerMBean("passive line");
+        progressLine.startWithNumberOfSteps(10);
+        progressLine.moveForward(10);
+        assertThat(server.isRegistered(getObjectName("passive line"))).isFalse();
+    }
+
+    @Test
+    public void progress_line_can_be_unregistered_before_completion() {
+        progressLine.registerMBean("failed line");
+        progressLine.startWithNumberOfSteps(10);
+        ProgressLineRegistry.unregister(progressLine);
+        assertThat(server.isRegistered(getObjectName("failed line"))).isFalse();
+    }
+
+    @Test
+    public void progress_line_with_the_name_of_a_running_line_runs_without_mbean() {
+        progressLine.registerMBean("duplicate line");
+        progressLine.startWithNumberOfSteps(10);
+        ProgressLine otherProgressLine = createProgressLine();
+        otherProgressLine.registerMBean("duplicate line");
+        otherProgressLine.startWithNumberOfSteps(10);
+        otherProgressLine.moveForward();
+        assertThat(otherProgressLine.getSnapshot().getCurrentStep()).isEqualTo(1);
+        assertThat(ProgressLineRegistry.getProgressLines())
+            .containsEntry("duplicate line", progressLine);
+    }
+
+    @Test
+    public void progress_line_is_completed_if_its_mbean_cannot_be_unregistered()
+            throws Exception {
+        progressLine.registerMBean("replaced line");
+        progressLine.startWithNumberOfSteps(10);
+        ObjectName name = getObjectName("replaced line");
+        server.unregisterMBean(name);
+        server.registerMBean(new MBeanRefusingOneUnregistration(), name);
+        try {
+            progressLine.moveForward(10);
+            assertThat(progressLine.getSnapshot().isComplete()).isTrue();
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    private ProgressLine createProgressLine() {
+        return new ProgressLine(new WriterSink(new StringWriter()));
+    }
+
+    public interface MBeanRefusingOneUnregistrationMBean {
+    }
+
+    public static class MBeanRefusingOneUnregistration
+            implements MBeanRefusingOneUnregistrationMBean, MBeanRegistration {
+        private boolean refused = false;
+
+        @Override
+        public ObjectName preRegister(MBeanServer server, ObjectName name) {
+            return name;
+        }
+
+        @Override
+        public void postRegister(Boolean registrationDone) {
+        }
+
+        @Override
+        public void preDeregister() throws Exception {
+            if (!refused) {
+                refused = true;
+                throw new Exception("dummy exception");
+            }
+        }
+
+        @Override
+        public void postDeregister() {
+        }
+    }
+}
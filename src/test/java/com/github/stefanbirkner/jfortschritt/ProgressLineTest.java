@@ -2,12 +2,25 @@ package com.github.stefanbirkner.jfortschritt;
 
 import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
 import static org.assertj.core.api.Assertions.*;
+import static java.util.concurrent.TimeUnit.HOURS;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.github.stefanbirkner.fishbowl.Statement;
+import com.sun.management.ThreadMXBean;
 import de.bechte.junit.runners.context.HierarchicalContextRunner;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.assertj.core.api.AbstractCharSequenceAssert;
 import org.junit.Before;
 import org.junit.Rule;
@@ -152,6 +165,550 @@ public class ProgressLineTest {
                 });
                 assertThat(e).isInstanceOf(IllegalStateException.class);
             }
+
+            @Test
+            public void failed_move_does_not_change_progress() {
+                startProgressLineWithNumberOfSteps(ARBITRARY_NUMBER_OF_STEPS);
+                moveProgressLineNSteps(ARBITRARY_NUMBER_OF_STEPS);
+                exceptionThrownBy(new Statement() {
+                    @Override
+                    public void evaluate() throws Throwable {
+                        moveProgressLineNSteps(1);
+                    }
+                });
+                assertThat(progressLine.getSnapshot().getCurrentStep())
+                    .isEqualTo(ARBITRARY_NUMBER_OF_STEPS);
+            }
+        }
+
+        @Test
+        public void move_before_start_is_not_counted() {
+            exceptionThrownBy(new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    moveProgressLineNSteps(1);
+                }
+            });
+            startProgressLineWithArbitraryNumberOfSteps();
+            moveProgressLineNSteps(1);
+            assertThat(progressLine.getSnapshot().getCurrentStep()).isEqualTo(1);
+        }
+    }
+
+    public class rendering {
+        @Before
+        public void useProgressLineWithoutCounter() {
+            progressLine = new ProgressLine();
+        }
+
+        @Test
+        public void every_step_overrides_the_previous_frame() {
+            startProgressLineWithNumberOfSteps(2);
+            moveProgressLineNSteps(2);
+            assertThat(systemOutRule.getLogWithNormalizedLineSeparator())
+                .isEqualTo("[>" + repeat(' ', 69) + "]"
+                    + "\r[" + repeat('=', 68) + "> ]"
+                    + "\r[" + repeat('=', 69) + ">]\n");
+        }
+
+        @Test
+        public void moving_forward_does_not_allocate_memory() {
+            System.setOut(new PrintStream(new DiscardingOutputStream()));
+            ThreadMXBean threadMXBean
+                = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long threadId = Thread.currentThread().getId();
+            startProgressLineWithNumberOfSteps(200_000);
+            moveProgressLineNSteps(100_000); //warm up
+            long allocatedBytesBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+            moveProgressLineNSteps(100_000);
+            long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId)
+                - allocatedBytesBefore;
+            assertThat(allocatedBytes).isLessThan(1_000);
+        }
+
+        @Test
+        public void moving_forward_with_parts_does_not_allocate_memory() {
+            progressLine = new ProgressLine(new Counter(), new EstimatedTime());
+            moving_forward_does_not_allocate_memory();
+        }
+
+        @Test
+        public void progress_line_is_not_redrawn_if_its_text_does_not_change() {
+            startProgressLineWithNumberOfSteps(1_000);
+            moveProgressLineNSteps(1_000);
+            assertThat(numberOfFramesAtSystemOut()).isLessThanOrEqualTo(72);
+        }
+    }
+
+    public class progress_line_moved_multiple_steps_at_once {
+        @Before
+        public void useProgressLineWithCounter() {
+            progressLine = new ProgressLine(new Counter());
+        }
+
+        @Test
+        public void progress_line_shows_the_new_step() {
+            startProgressLineWithNumberOfSteps(ARBITRARY_NUMBER_OF_STEPS);
+            progressLine.moveForward(10);
+            assertTextVisibleAtSystemOut().endsWith("(10/42)");
+        }
+
+        @Test
+        public void progress_line_is_rendered_once() {
+            startProgressLineWithNumberOfSteps(ARBITRARY_NUMBER_OF_STEPS);
+            progressLine.moveForward(10);
+            assertThat(numberOfFramesAtSystemOut()).isEqualTo(2);
+        }
+
+        @Test
+        public void progress_line_supports_more_steps_than_an_int() {
+            progressLine.startWithNumberOfSteps(10_000_000_000L);
+            progressLine.moveForward(5_000_000_000L);
+            assertTextVisibleAtSystemOut()
+                .endsWith("(5000000000/10000000000)")
+                .hasSize(72);
+        }
+
+        @Test
+        public void progress_line_is_terminated_with_new_line_after_last_step() {
+            startProgressLineWithNumberOfSteps(ARBITRARY_NUMBER_OF_STEPS);
+            progressLine.moveForward(ARBITRARY_NUMBER_OF_STEPS);
+            assertTextVisibleAtSystemOut().endsWith("(42/42)\n");
+        }
+
+        @Test
+        public void progress_line_cannot_be_moved_beyond_the_last_step() {
+            startProgressLineWithNumberOfSteps(ARBITRARY_NUMBER_OF_STEPS);
+            Throwable e = exceptionThrownBy(new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    progressLine.moveForward(ARBITRARY_NUMBER_OF_STEPS + 1);
+                }
+            });
+            assertThat(e).isInstanceOf(IllegalStateException.class);
+            assertTextVisibleAtSystemOut().endsWith("(0/42)");
+        }
+
+        @Test
+        public void progress_line_cannot_be_moved_negative_steps() {
+            startProgressLineWithNumberOfSteps(ARBITRARY_NUMBER_OF_STEPS);
+            Throwable e = exceptionThrownBy(new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    progressLine.moveForward(-1);
+                }
+            });
+            assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    public class progress_line_with_progress_set_explicitly {
+        @Before
+        public void useProgressLineWithCounter() {
+            progressLine = new ProgressLine(new Counter());
+        }
+
+        @Test
+        public void progress_line_shows_the_new_step() {
+            startProgressLineWithNumberOfSteps(ARBITRARY_NUMBER_OF_STEPS);
+            progressLine.setProgress(10);
+            assertTextVisibleAtSystemOut().endsWith("(10/42)");
+        }
+
+        @Test
+        public void progress_line_is_not_moved_backwards() {
+            startProgressLineWithNumberOfSteps(ARBITRARY_NUMBER_OF_STEPS);
+            progressLine.setProgress(10);
+            progressLine.setProgress(5);
+            assertTextVisibleAtSystemOut().endsWith("(10/42)");
+        }
+
+        @Test
+        public void progress_line_is_terminated_with_new_line_after_last_step() {
+            startProgressLineWithNumberOfSteps(ARBITRARY_NUMBER_OF_STEPS);
+            progressLine.setProgress(ARBITRARY_NUMBER_OF_STEPS);
+            assertTextVisibleAtSystemOut().endsWith("(42/42)\n");
+        }
+
+        @Test
+        public void progress_cannot_be_set_beyond_the_last_step() {
+            startProgressLineWithNumberOfSteps(ARBITRARY_NUMBER_OF_STEPS);
+            Throwable e = exceptionThrownBy(new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    progressLine.setProgress(ARBITRARY_NUMBER_OF_STEPS + 1);
+                }
+            });
+            assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    public class progress_line_with_sink {
+        private final StringWriter writer = new StringWriter();
+
+        @Before
+        public void useProgressLineWithWriterSink() {
+            progressLine = new ProgressLine(new WriterSink(writer));
+        }
+
+        @Test
+        public void progress_line_is_written_to_the_sink() {
+            startProgressLineWithNumberOfSteps(1);
+            moveProgressLineNSteps(1);
+            assertThat(writer.toString()).endsWith("\r[" + repeat('=', 69) + ">]"
+                + System.lineSeparator());
+        }
+
+        @Test
+        public void progress_line_is_not_written_to_system_out() {
+            startProgressLineWithNumberOfSteps(1);
+            moveProgressLineNSteps(1);
+            assertThat(systemOutRule.getLog()).isEmpty();
+        }
+    }
+
+    public class progress_line_with_minimum_redraw_interval {
+        @Before
+        public void useProgressLineWithCounterAndLongRedrawInterval() {
+            progressLine = new ProgressLine(new Counter());
+            progressLine.setMinimumRedrawInterval(1, HOURS);
+        }
+
+        @Test
+        public void progress_line_is_only_redrawn_if_the_progress_bar_grows() {
+            startProgressLineWithNumberOfSteps(
+                NUMBER_OF_STEPS_WITH_MULTIPLE_STEPS_PER_CHARACTER);
+            moveProgressLineNSteps(
+                NUMBER_OF_STEPS_WITH_MULTIPLE_STEPS_PER_CHARACTER - 1);
+            assertThat(numberOfFramesAtSystemOut()).isLessThanOrEqualTo(72);
+        }
+
+        @Test
+        public void final_line_is_always_drawn() {
+            startProgressLineWithNumberOfSteps(
+                NUMBER_OF_STEPS_WITH_MULTIPLE_STEPS_PER_CHARACTER);
+            moveProgressLineNSteps(
+                NUMBER_OF_STEPS_WITH_MULTIPLE_STEPS_PER_CHARACTER);
+            assertTextVisibleAtSystemOut().endsWith("=>] (1000/1000)\n");
+        }
+
+        @Test
+        public void minimum_redraw_interval_cannot_be_negative() {
+            Throwable e = exceptionThrownBy(new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    progressLine.setMinimumRedrawInterval(-1, HOURS);
+                }
+            });
+            assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    public class progress_line_in_log_mode {
+        @Before
+        public void useProgressLineWithCounterInLogMode() {
+            progressLine = new ProgressLine(new Counter());
+            progressLine.setDisplayMode(DisplayMode.LOG);
+        }
+
+        @Test
+        public void progress_line_writes_percentage_and_parts_at_start() {
+            startProgressLineWithNumberOfSteps(ARBITRARY_NUMBER_OF_STEPS);
+            assertThat(systemOutRule.getLogWithNormalizedLineSeparator())
+                .isEqualTo("0% (0/42)\n");
+        }
+
+        @Test
+        public void progress_line_writes_a_status_line_per_ten_percent() {
+            startProgressLineWithNumberOfSteps(
+                NUMBER_OF_STEPS_WITH_MULTIPLE_STEPS_PER_CHARACTER);
+            moveProgressLineNSteps(
+                NUMBER_OF_STEPS_WITH_MULTIPLE_STEPS_PER_CHARACTER / 2);
+            assertThat(systemOutRule.getLogWithNormalizedLineSeparator())
+                .isEqualTo("0% (0/1000)\n"
+                    + "10% (100/1000)\n"
+                    + "20% (200/1000)\n"
+                    + "30% (300/1000)\n"
+                    + "40% (400/1000)\n"
+                    + "50% (500/1000)\n");
+        }
+
+        @Test
+        public void progress_line_writes_a_status_line_per_configured_percentage() {
+            progressLine.setLogPercentageInterval(50);
+            startProgressLineWithNumberOfSteps(
+                NUMBER_OF_STEPS_WITH_MULTIPLE_STEPS_PER_CHARACTER);
+            moveProgressLineNSteps(
+                NUMBER_OF_STEPS_WITH_MULTIPLE_STEPS_PER_CHARACTER);
+            assertThat(systemOutRule.getLogWithNormalizedLineSeparator())
+                .isEqualTo("0% (0/1000)\n"
+                    + "50% (500/1000)\n"
+                    + "100% (1000/1000)\n");
+        }
+
+        @Test
+        public void progress_line_writes_the_final_line() {
+            startProgressLineWithNumberOfSteps(ARBITRARY_NUMBER_OF_STEPS);
+            moveProgressLineNSteps(ARBITRARY_NUMBER_OF_STEPS);
+            assertThat(systemOutRule.getLogWithNormalizedLineSeparator())
+                .endsWith("\n100% (42/42)\n");
+        }
+
+        @Test
+        public void progress_line_detects_that_there_is_no_console() {
+            progressLine = new ProgressLine(new Counter());
+            progressLine.setDisplayMode(DisplayMode.DETECT);
+            startProgressLineWithNumberOfSteps(ARBITRARY_NUMBER_OF_STEPS);
+            assertThat(systemOutRule.getLogWithNormalizedLineSeparator())
+                .isEqualTo("0% (0/42)\n");
+        }
+    }
+
+    public class progress_line_with_growing_number_of_steps {
+        @Before
+        public void useProgressLineWithCounter() {
+            progressLine = new ProgressLine(new Counter());
+        }
+
+        @Test
+        public void progress_line_shows_the_increased_number_of_steps() {
+            startProgressLineWithNumberOfSteps(ARBITRARY_NUMBER_OF_STEPS);
+            moveProgressLineNSteps(2);
+            progressLine.increaseNumberOfSteps(8);
+            assertTextVisibleAtSystemOut().endsWith("(2/50)");
+        }
+
+        @Test
+        public void progress_line_is_not_complete_at_previous_number_of_steps() {
+            startProgressLineWithNumberOfSteps(2);
+            progressLine.setNumberOfSteps(4);
+            moveProgressLineNSteps(2);
+            assertTextVisibleAtSystemOut().endsWith("(2/4)");
+        }
+
+        @Test
+        public void progress_line_is_terminated_with_new_line_after_last_step() {
+            startProgressLineWithNumberOfSteps(2);
+            progressLine.increaseNumberOfSteps(2);
+            moveProgressLineNSteps(4);
+            assertTextVisibleAtSystemOut().endsWith("(4/4)\n");
+        }
+
+        @Test
+        public void line_is_completed_once_if_the_number_of_steps_is_increased_concurrently_with_the_last_step()
+                throws Exception {
+            //the total may be increased after the last step checked whether
+            //the line is complete. Repeat it to hit this interleaving.
+            for (int i = 0; i < 1_000; ++i) {
+                StringWriter writer = new StringWriter();
+                progressLine = new ProgressLine(new WriterSink(writer), new Counter());
+                startProgressLineWithNumberOfSteps(2);
+                moveProgressLineNSteps(1);
+                Thread increase = startThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        increaseNumberOfStepsUnlessComplete();
+                    }
+                });
+                progressLine.moveForward();
+                increase.join();
+                ProgressSnapshot snapshot = progressLine.getSnapshot();
+                long numberOfSteps = snapshot.getNumberOfSteps();
+                moveProgressLineNSteps((int) (numberOfSteps - snapshot.getCurrentStep()));
+                String lineSeparator = System.lineSeparator();
+                String text = writer.toString();
+                assertThat(text).endsWith(
+                    "(" + numberOfSteps + "/" + numberOfSteps + ")" + lineSeparator);
+                assertThat(text.indexOf(lineSeparator))
+                    .isEqualTo(text.length() - lineSeparator.length());
+            }
+        }
+
+        private void increaseNumberOfStepsUnlessComplete() {
+            try {
+                progressLine.increaseNumberOfSteps(1);
+            } catch (IllegalStateException e) {
+                //the last step has been rendered before
+            }
+        }
+
+        @Test
+        public void number_of_steps_cannot_be_decreased() {
+            startProgressLineWithNumberOfSteps(ARBITRARY_NUMBER_OF_STEPS);
+            Throwable e = exceptionThrownBy(new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    progressLine.setNumberOfSteps(ARBITRARY_NUMBER_OF_STEPS - 1);
+                }
+            });
+            assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        public void number_of_steps_of_complete_progress_line_cannot_be_increased() {
+            startProgressLineWithNumberOfSteps(1);
+            moveProgressLineNSteps(1);
+            Throwable e = exceptionThrownBy(new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    progressLine.increaseNumberOfSteps(1);
+                }
+            });
+            assertThat(e).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    public class progress_line_with_unknown_number_of_steps {
+        private ProgressLineWithManagedTime progressLineWithManagedTime;
+
+        @Before
+        public void useProgressLineWithCounter() {
+            progressLineWithManagedTime = new ProgressLineWithManagedTime(new Counter());
+            progressLine = progressLineWithManagedTime;
+        }
+
+        @Test
+        public void progress_line_shows_spinner_and_parts() {
+            progressLine.startWithUnknownNumberOfSteps();
+            moveProgressLineNSteps(1);
+            assertTextVisibleAtSystemOut().isEqualTo(
+                "| (1/?)" + repeat(' ', 65));
+        }
+
+        @Test
+        public void spinner_turns_every_100_milliseconds() {
+            progressLine.startWithUnknownNumberOfSteps();
+            progressLineWithManagedTime.currentTime += 100;
+            moveProgressLineNSteps(1);
+            assertTextVisibleAtSystemOut().startsWith("/ (1/?)");
+            progressLineWithManagedTime.currentTime += 250;
+            moveProgressLineNSteps(1);
+            assertTextVisibleAtSystemOut().startsWith("\\ (2/?)");
+        }
+
+        @Test
+        public void unchanged_line_is_not_written_again() {
+            progressLine = new ProgressLineWithManagedTime();
+            progressLine.startWithUnknownNumberOfSteps();
+            moveProgressLineNSteps(1);
+            String log = systemOutRule.getLog();
+            moveProgressLineNSteps(10);
+            assertThat(systemOutRule.getLog()).isEqualTo(log);
+        }
+
+        @Test
+        public void completed_progress_line_shows_full_progress_bar() {
+            progressLine.startWithUnknownNumberOfSteps();
+            moveProgressLineNSteps(3);
+            progressLine.complete();
+            assertTextVisibleAtSystemOut().isEqualTo(
+                "[" + repeat('=', 63) + ">] (3/3)\n");
+        }
+
+        @Test
+        public void progress_line_shows_progress_bar_when_number_of_steps_is_set() {
+            progressLine.startWithUnknownNumberOfSteps();
+            moveProgressLineNSteps(3);
+            progressLine.setNumberOfSteps(6);
+            assertTextVisibleAtSystemOut().startsWith("[====").endsWith("(3/6)");
+        }
+
+        @Test
+        public void progress_line_with_known_number_of_steps_cannot_be_completed_explicitly() {
+            startProgressLineWithNumberOfSteps(ARBITRARY_NUMBER_OF_STEPS);
+            Throwable e = exceptionThrownBy(new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    progressLine.complete();
+                }
+            });
+            assertThat(e).isInstanceOf(IllegalStateException.class);
+        }
+
+        @Test
+        public void running_progress_line_keeps_number_of_steps_when_started_again() {
+            startProgressLineWithNumberOfSteps(10);
+            exceptionThrownBy(new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    progressLine.startWithUnknownNumberOfSteps();
+                }
+            });
+            assertThat(progressLine.getSnapshot().getNumberOfSteps()).isEqualTo(10);
+        }
+
+        @Test
+        public void progress_line_writes_number_of_steps_in_log_mode() {
+            progressLine.setDisplayMode(DisplayMode.LOG);
+            progressLine.startWithUnknownNumberOfSteps();
+            moveProgressLineNSteps(3);
+            progressLine.complete();
+            assertThat(systemOutRule.getLogWithNormalizedLineSeparator())
+                .isEqualTo("0 steps (0/?)\n100% (3/3)\n");
+        }
+    }
+
+    public class progress_line_shared_by_multiple_threads {
+        private static final int NUMBER_OF_THREADS = 8;
+        private static final int STEPS_PER_THREAD = 10_000;
+
+        @Before
+        public void useProgressLineWithoutCounter() {
+            progressLine = new ProgressLine();
+        }
+
+        @Test
+        public void progress_line_is_terminated_with_a_single_new_line()
+                throws Exception {
+            startProgressLineWithNumberOfSteps(
+                NUMBER_OF_THREADS * STEPS_PER_THREAD);
+            moveProgressLineForwardConcurrently(STEPS_PER_THREAD);
+            String log = systemOutRule.getLogWithNormalizedLineSeparator();
+            assertThat(log.indexOf('\n')).isEqualTo(log.length() - 1);
+            assertTextVisibleAtSystemOut().endsWith("=>]\n");
+        }
+
+        @Test
+        public void progress_line_cannot_be_moved_beyond_the_last_step()
+                throws Exception {
+            startProgressLineWithNumberOfSteps(
+                NUMBER_OF_THREADS * STEPS_PER_THREAD);
+            int numberOfFailedSteps
+                = moveProgressLineForwardConcurrently(STEPS_PER_THREAD + 1);
+            assertThat(numberOfFailedSteps).isEqualTo(NUMBER_OF_THREADS);
+        }
+
+        private int moveProgressLineForwardConcurrently(final int stepsPerThread)
+                throws Exception {
+            ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+            try {
+                List<Future<Integer>> failedSteps = new ArrayList<>();
+                for (int i = 0; i < NUMBER_OF_THREADS; ++i)
+                    failedSteps.add(executor.submit(new Callable<Integer>() {
+                        @Override
+                        public Integer call() {
+                            return moveProgressLineNStepsAndCountFailures(
+                                stepsPerThread);
+                        }
+                    }));
+                int numberOfFailedSteps = 0;
+                for (Future<Integer> future : failedSteps)
+                    numberOfFailedSteps += future.get();
+                return numberOfFailedSteps;
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        private int moveProgressLineNStepsAndCountFailures(int n) {
+            int numberOfFailedSteps = 0;
+            for (int i = 0; i < n; ++i)
+                try {
+                    progressLine.moveForward();
+                } catch (IllegalStateException e) {
+                    ++numberOfFailedSteps;
+                }
+            return numberOfFailedSteps;
         }
     }
 
@@ -179,6 +736,14 @@ public class ProgressLineTest {
             assertTextVisibleAtSystemOut().endsWith("first second");
         }
 
+        @Test
+        public void output_of_parts_is_provided_for_current_step() {
+            useCountersWithOutpoutForStep(2, "first", "second");
+            startProgressLineWithArbitraryNumberOfSteps();
+            moveProgressLineNSteps(2);
+            assertThat(progressLine.getOutputForParts()).isEqualTo(" first second");
+        }
+
         @Test
         public void progress_line_informs_parts_about_start() {
             startProgressLineWithNumberOfSteps(ARBITRARY_NUMBER_OF_STEPS);
@@ -200,6 +765,157 @@ public class ProgressLineTest {
         }
     }
 
+    public class progress_line_with_asynchronous_rendering {
+        @Before
+        public void useProgressLineWithCounterAndAsynchronousRendering() {
+            progressLine = new ProgressLine(new Counter());
+            progressLine.setAsynchronousRendering(true);
+        }
+
+        @Test
+        public void final_line_is_written_when_progress_line_is_complete() {
+            startProgressLineWithNumberOfSteps(10);
+            moveProgressLineNSteps(10);
+            progressLine.close();
+            assertTextVisibleAtSystemOut().endsWith("=>] (10/10)\n");
+        }
+
+        @Test
+        public void incomplete_line_is_terminated_by_a_new_line_when_closed() {
+            startProgressLineWithNumberOfSteps(10);
+            moveProgressLineNSteps(4);
+            progressLine.close();
+            assertTextVisibleAtSystemOut().endsWith("] (4/10)\n");
+        }
+
+        @Test
+        public void progress_line_is_not_rendered_after_it_has_been_closed() {
+            startProgressLineWithNumberOfSteps(10);
+            progressLine.close();
+            String log = systemOutRule.getLog();
+            moveProgressLineNSteps(10);
+            assertThat(systemOutRule.getLog()).isEqualTo(log);
+        }
+
+        @Test
+        public void moving_forward_does_not_wait_for_a_blocked_sink() {
+            BlockingSink sink = new BlockingSink();
+            progressLine = new ProgressLine(sink, new Counter());
+            progressLine.setAsynchronousRendering(true);
+            startProgressLineWithNumberOfSteps(1000);
+            moveProgressLineNSteps(1000);
+            sink.unblock();
+            progressLine.close();
+            assertThat(sink.getText()).endsWith("=>] (1000/1000)"
+                + System.lineSeparator());
+        }
+
+        @Test(timeout = 10_000)
+        public void number_of_steps_is_increased_while_the_sink_is_blocked()
+                throws Exception {
+            BlockingSink sink = new BlockingSink();
+            progressLine = new ProgressLine(sink, new Counter());
+            progressLine.setAsynchronousRendering(true);
+            startProgressLineWithNumberOfSteps(10);
+            moveProgressLineNSteps(1);
+            sink.awaitBlockedWrite();
+            progressLine.increaseNumberOfSteps(5);
+            sink.unblock();
+            progressLine.close();
+            assertThat(sink.getText()).endsWith("] (1/15)" + System.lineSeparator());
+        }
+
+        @Test(timeout = 10_000)
+        public void line_is_not_completed_if_the_number_of_steps_is_increased_before_the_last_step_is_rendered()
+                throws Exception {
+            StringWriter writer = new StringWriter();
+            CounterBlockingOnNumberOfStepsChange counter
+                = new CounterBlockingOnNumberOfStepsChange();
+            progressLine = new ProgressLine(new WriterSink(writer), counter);
+            progressLine.setAsynchronousRendering(true);
+            startProgressLineWithNumberOfSteps(9);
+            //the renderer reads the number of steps and blocks
+            progressLine.setNumberOfSteps(10);
+            counter.awaitBlocked();
+            moveProgressLineNSteps(9);
+            progressLine.increaseNumberOfSteps(5);
+            moveProgressLineNSteps(1);
+            counter.unblock();
+            progressLine.close();
+            String lineSeparator = System.lineSeparator();
+            String text = writer.toString();
+            assertThat(text).endsWith("] (10/15)" + lineSeparator);
+            assertThat(text.indexOf(lineSeparator))
+                .isEqualTo(text.length() - lineSeparator.length());
+        }
+
+        @Test
+        public void frames_are_skipped_while_the_sink_is_blocked() {
+            BlockingSink sink = new BlockingSink();
+            progressLine = new ProgressLine(sink, new Counter());
+            progressLine.setAsynchronousRendering(true);
+            startProgressLineWithNumberOfSteps(1000);
+            moveProgressLineNSteps(1000);
+            sink.unblock();
+            progressLine.close();
+            assertThat(sink.getNumberOfWrites()).isLessThanOrEqualTo(3);
+        }
+    }
+
+    public class snapshot_of_progress_line {
+        @Before
+        public void useProgressLineWithoutParts() {
+            progressLine = new ProgressLine();
+        }
+
+        @Test
+        public void snapshot_has_current_step_and_number_of_steps() {
+            startProgressLineWithNumberOfSteps(10);
+            moveProgressLineNSteps(4);
+            ProgressSnapshot snapshot = progressLine.getSnapshot();
+            assertThat(snapshot.getCurrentStep()).isEqualTo(4);
+            assertThat(snapshot.getNumberOfSteps()).isEqualTo(10);
+        }
+
+        @Test
+        public void snapshot_has_unknown_number_of_steps() {
+            progressLine.startWithUnknownNumberOfSteps();
+            ProgressSnapshot snapshot = progressLine.getSnapshot();
+            assertThat(snapshot.getNumberOfSteps())
+                .isEqualTo(ProgressLine.UNKNOWN_NUMBER_OF_STEPS);
+        }
+
+        @Test
+        public void snapshot_has_no_estimation_if_number_of_steps_is_unknown() {
+            progressLine.startWithUnknownNumberOfSteps();
+            moveProgressLineNSteps(4);
+            ProgressSnapshot snapshot = progressLine.getSnapshot();
+            assertThat(snapshot.getEstimatedRemainingTime()).isEqualTo(-1);
+        }
+
+        @Test
+        public void snapshot_of_complete_progress_line_is_complete() {
+            startProgressLineWithNumberOfSteps(10);
+            moveProgressLineNSteps(10);
+            assertThat(progressLine.getSnapshot().isComplete()).isTrue();
+            assertThat(progressLine.getSnapshot().getEstimatedRemainingTime())
+                .isZero();
+        }
+
+        @Test
+        public void snapshot_cannot_be_taken_before_start() {
+            Throwable exception = exceptionThrownBy(new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    progressLine.getSnapshot();
+                }
+            });
+            assertThat(exception)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("A snapshot cannot be taken because the progress line has not been started.");
+        }
+    }
+
     private void startProgressLineWithNumberOfSteps(int numberOfSteps) {
         progressLine.startWithNumberOfSteps(numberOfSteps);
     }
@@ -213,10 +929,121 @@ public class ProgressLineTest {
             progressLine.moveForward();
     }
 
+    private Thread startThread(Runnable runnable) {
+        Thread thread = new Thread(runnable);
+        thread.start();
+        return thread;
+    }
+
+    private String repeat(char c, int n) {
+        return new String(new char[n]).replace('\0', c);
+    }
+
+    private int numberOfFramesAtSystemOut() {
+        String log = systemOutRule.getLog();
+        return log.length() - log.replace("\r", "").length() + 1;
+    }
+
     private AbstractCharSequenceAssert<?, String> assertTextVisibleAtSystemOut() {
         String log = systemOutRule.getLogWithNormalizedLineSeparator();
         int posOfLastCr = log.lastIndexOf("\r");
         String visibleText = log.substring(posOfLastCr + 1);
         return assertThat(visibleText);
     }
+
+    /**
+     * A sink that blocks all writes but the first one until it is unblocked.
+     */
+    private static class BlockingSink implements Sink {
+        private final CountDownLatch unblocked = new CountDownLatch(1);
+        private final CountDownLatch blockedWrite = new CountDownLatch(1);
+        private final StringBuilder text = new StringBuilder();
+        private int numberOfWrites = 0;
+
+        @Override
+        public void write(char[] chars, int length) {
+            if (getNumberOfWrites() > 0)
+                awaitUnblocked();
+            synchronized (this) {
+                text.append(chars, 0, length);
+                ++numberOfWrites;
+            }
+        }
+
+        private void awaitUnblocked() {
+            blockedWrite.countDown();
+            try {
+                unblocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void awaitBlockedWrite() throws InterruptedException {
+            blockedWrite.await();
+        }
+
+        void unblock() {
+            unblocked.countDown();
+        }
+
+        synchronized String getText() {
+            return text.toString();
+        }
+
+        synchronized int getNumberOfWrites() {
+            return numberOfWrites;
+        }
+    }
+
+    /**
+     * A counter that blocks when it is told the number of steps the first
+     * time until it is unblocked.
+     */
+    private static class CounterBlockingOnNumberOfStepsChange extends Counter {
+        private final CountDownLatch unblocked = new CountDownLatch(1);
+        private final CountDownLatch blocked = new CountDownLatch(1);
+
+        @Override
+        public void numberOfStepsChanged(long numberOfSteps) {
+            blocked.countDown();
+            try {
+                unblocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.numberOfStepsChanged(numberOfSteps);
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            blocked.await();
+        }
+
+        void unblock() {
+            unblocked.countDown();
+        }
+    }
+
+    private static class ProgressLineWithManagedTime extends ProgressLine {
+        long currentTime = 54984658; //arbitrary time stamp
+
+        ProgressLineWithManagedTime(ProgressLinePart... additionalParts) {
+            super(additionalParts);
+        }
+
+        @Override
+        long getTime() {
+            return currentTime;
+        }
+    }
+
+    private static class DiscardingOutputStream extends OutputStream {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
 }
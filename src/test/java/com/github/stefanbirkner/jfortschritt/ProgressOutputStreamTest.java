@@ -0,0 +1,26 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import org.junit.Test;
+
+public class ProgressOutputStreamTest {
+    private final StringWriter writer = new StringWriter();
+    private final ProgressLine progressLine
+        = new ProgressLine(new WriterSink(writer), new Counter());
+
+    @Test
+    public void progress_line_is_moved_forward_by_the_number_of_bytes_written()
+            throws Exception {
+        progressLine.startWithNumberOfSteps(10);
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        OutputStream stream = new ProgressOutputStream(target, progressLine);
+        stream.write(1);
+        stream.write(new byte[] {2, 3, 4, 5, 6}, 1, 3);
+        assertThat(writer.toString()).endsWith("(4/10)");
+        assertThat(target.toByteArray()).containsExactly(new byte[] {1, 3, 4, 5});
+    }
+}
@@ -0,0 +1,134 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import org.junit.After;
+import org.junit.Test;
+
+public class ProgressPublisherTest {
+    private final ProgressLine progressLine = new ProgressLine(
+        new WriterSink(new StringWriter()));
+    private final ManualExecutor executor = new ManualExecutor();
+    private final ProgressPublisher publisher
+        = new ProgressPublisher(progressLine, executor);
+    private final RecordingSubscriber subscriber = new RecordingSubscriber();
+
+    @After
+    public void stopPublisher() {
+        publisher.stop();
+    }
+
+    @Test
+    public void subscriber_receives_snapshot_of_progress_line() {
+        publisher.subscribe(subscriber);
+        progressLine.startWithNumberOfSteps(10);
+        progressLine.moveForward(3);
+        publisher.publish();
+        executor.runTasks();
+        assertThat(subscriber.steps).containsExactly(3L);
+    }
+
+    @Test
+    public void slow_subscriber_receives_only_the_latest_snapshot() {
+        publisher.subscribe(subscriber);
+        progressLine.startWithNumberOfSteps(10);
+        for (int i = 0; i < 5; ++i) {
+            progressLine.moveForward();
+            publisher.publish();
+        }
+        executor.runTasks();
+        assertThat(subscriber.steps).containsExactly(5L);
+    }
+
+    @Test
+    public void slow_subscriber_does_not_queue_snapshots() {
+        publisher.subscribe(subscriber);
+        progressLine.startWithNumberOfSteps(10);
+        for (int i = 0; i < 5; ++i) {
+            progressLine.moveForward();
+            publisher.publish();
+        }
+        assertThat(executor.tasks).hasSize(1);
+    }
+
+    @Test
+    public void subscriber_is_informed_about_completion() {
+        publisher.subscribe(subscriber);
+        progressLine.startWithNumberOfSteps(10);
+        progressLine.moveForward(10);
+        publisher.publish();
+        executor.runTasks();
+        assertThat(subscriber.steps).containsExactly(10L);
+        assertThat(subscriber.complete).isTrue();
+    }
+
+    @Test
+    public void nothing_is_published_before_progress_line_is_started() {
+        publisher.subscribe(subscriber);
+        publisher.publish();
+        executor.runTasks();
+        assertThat(subscriber.steps).isEmpty();
+    }
+
+    @Test
+    public void unsubscribed_subscriber_receives_no_snapshots() {
+        publisher.subscribe(subscriber);
+        publisher.unsubscribe(subscriber);
+        progressLine.startWithNumberOfSteps(10);
+        publisher.publish();
+        executor.runTasks();
+        assertThat(subscriber.steps).isEmpty();
+    }
+
+    @Test
+    public void publisher_publishes_in_the_background() throws Exception {
+        final CountDownLatch completed = new CountDownLatch(1);
+        ProgressPublisher publisher = new ProgressPublisher(progressLine);
+        publisher.subscribe(new RecordingSubscriber() {
+            @Override
+            public void onComplete() {
+                completed.countDown();
+            }
+        });
+        progressLine.startWithNumberOfSteps(10);
+        publisher.start(1, MILLISECONDS);
+        progressLine.moveForward(10);
+        assertThat(completed.await(5, SECONDS)).isTrue();
+    }
+
+    private static class ManualExecutor implements Executor {
+        final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runTasks() {
+            while (!tasks.isEmpty())
+                tasks.remove(0).run();
+        }
+    }
+
+    private static class RecordingSubscriber implements ProgressSubscriber {
+        final List<Long> steps = new ArrayList<>();
+        boolean complete = false;
+
+        @Override
+        public void onSnapshot(ProgressSnapshot snapshot) {
+            steps.add(snapshot.getCurrentStep());
+        }
+
+        @Override
+        public void onComplete() {
+            complete = true;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.nio.channels.Channels.newChannel;
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import org.junit.Test;
+
+public class ProgressReadableByteChannelTest {
+    private final StringWriter writer = new StringWriter();
+    private final ProgressLine progressLine
+        = new ProgressLine(new WriterSink(writer), new Counter());
+
+    @Test
+    public void progress_line_is_moved_forward_by_the_number_of_bytes_read()
+            throws Exception {
+        progressLine.startWithNumberOfSteps(10);
+        ReadableByteChannel channel = new ProgressReadableByteChannel(
+            newChannel(new ByteArrayInputStream(new byte[10])), progressLine);
+        channel.read(ByteBuffer.allocate(6));
+        assertThat(writer.toString()).endsWith("(6/10)");
+    }
+}
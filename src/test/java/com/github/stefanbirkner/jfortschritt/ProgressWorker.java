@@ -0,0 +1,42 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A worker process for {@link ProgressAggregatorTest}. It reports the
+ * progress of a shard to an aggregator.
+ * <pre>ProgressWorker port name numberOfSteps</pre>
+ */
+public class ProgressWorker {
+    public static void main(String... args) throws Exception {
+        int port = Integer.parseInt(args[0]);
+        String name = args[1];
+        int numberOfSteps = Integer.parseInt(args[2]);
+        ProgressLine progressLine = new ProgressLine(new WriterSink(new StringWriter()));
+        ProgressPublisher publisher = new ProgressPublisher(progressLine);
+        final CountDownLatch left = new CountDownLatch(1);
+        final ProgressReporter reporter = new ProgressReporter(name, port);
+        publisher.subscribe(new ProgressSubscriber() {
+            @Override
+            public void onSnapshot(ProgressSnapshot snapshot) {
+                reporter.onSnapshot(snapshot);
+            }
+
+            @Override
+            public void onComplete() {
+                reporter.onComplete();
+                left.countDown();
+            }
+        });
+        progressLine.startWithNumberOfSteps(numberOfSteps);
+        publisher.start(5, MILLISECONDS);
+        for (int i = 0; i < numberOfSteps; ++i) {
+            Thread.sleep(1);
+            progressLine.moveForward();
+        }
+        left.await();
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static org.assertj.core.api.Assertions.*;
+
+import com.github.stefanbirkner.fishbowl.Statement;
+import org.junit.Test;
+
+public class SlidingWindowRateEstimatorTest {
+    private final EstimatedTimeWithManagedSystemTime estimatedTime
+        = new EstimatedTimeWithManagedSystemTime(new SlidingWindowRateEstimator(3));
+
+    @Test
+    public void estimation_is_based_on_the_samples_within_the_window() {
+        estimatedTime.progressLineStarted(100);
+        estimatedTime.getOutputForStepAfter(10, 100_000); //slow warm-up
+        estimatedTime.getOutputForStepAfter(20, 1_000);
+        String output = estimatedTime.getOutputForStepAfter(30, 1_000);
+        assertThat(output).isEqualTo("eta 7s");
+    }
+
+    @Test
+    public void estimation_is_empty_if_no_time_elapsed() {
+        estimatedTime.progressLineStarted(100);
+        String output = estimatedTime.getOutputForStepAfter(10, 0);
+        assertThat(output).isEmpty();
+    }
+
+    @Test
+    public void window_must_have_at_least_two_samples() {
+        Throwable e = exceptionThrownBy(new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                new SlidingWindowRateEstimator(1);
+            }
+        });
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,225 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.stefanbirkner.fishbowl.Statement;
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.SystemErrRule;
+import org.junit.rules.TemporaryFolder;
+
+public class StallWatchdogTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public final SystemErrRule systemErrRule = new SystemErrRule().enableLog().mute();
+
+    private final StallWatchdogWithManagedSystemTime watchdog
+        = new StallWatchdogWithManagedSystemTime();
+    private final ProgressLine progressLine = new ProgressLine(
+        new WriterSink(new StringWriter()));
+    private final List<ProgressSnapshot> stalls = new ArrayList<>();
+
+    @After
+    public void stopWatchdog() {
+        watchdog.stop();
+    }
+
+    @Test
+    public void progress_line_is_not_stalled_within_threshold() {
+        startProgressLine();
+        watchdog.currentTime += 9_999;
+        watchdog.check();
+        assertThat(progressLine.isStalled()).isFalse();
+    }
+
+    @Test
+    public void progress_line_is_stalled_if_it_did_not_move_within_threshold() {
+        startProgressLine();
+        progressLine.moveForward();
+        watchdog.check();
+        watchdog.currentTime += 10_000;
+        watchdog.check();
+        assertThat(progressLine.isStalled()).isTrue();
+    }
+
+    @Test
+    public void listener_is_called_with_state_of_stalled_progress_line() {
+        startProgressLine();
+        progressLine.moveForward(3);
+        watchdog.check();
+        watchdog.currentTime += 10_000;
+        watchdog.check();
+        assertThat(stalls).hasSize(1);
+        assertThat(stalls.get(0).getCurrentStep()).isEqualTo(3);
+    }
+
+    @Test
+    public void listener_is_called_only_once_per_stall() {
+        startProgressLine();
+        watchdog.currentTime += 10_000;
+        watchdog.check();
+        watchdog.currentTime += 10_000;
+        watchdog.check();
+        assertThat(stalls).hasSize(1);
+    }
+
+    @Test
+    public void stall_ends_when_progress_line_moves_forward() {
+        startProgressLine();
+        watchdog.currentTime += 10_000;
+        watchdog.check();
+        progressLine.moveForward();
+        watchdog.check();
+        assertThat(progressLine.isStalled()).isFalse();
+    }
+
+    @Test
+    public void progress_line_is_stalled_if_it_is_slower_than_minimum_rate() {
+        watchdog.setMinimumRate(2);
+        startProgressLine();
+        for (int i = 0; i < 10; ++i) {
+            watchdog.currentTime += 1_000;
+            progressLine.moveForward();
+            watchdog.check();
+        }
+        assertThat(progressLine.isStalled()).isTrue();
+    }
+
+    @Test
+    public void progress_line_is_not_stalled_if_it_is_as_fast_as_minimum_rate() {
+        watchdog.setMinimumRate(1);
+        startProgressLine();
+        for (int i = 0; i < 10; ++i) {
+            watchdog.currentTime += 1_000;
+            progressLine.moveForward();
+            watchdog.check();
+        }
+        assertThat(progressLine.isStalled()).isFalse();
+    }
+
+    @Test
+    public void complete_progress_line_is_not_stalled() {
+        startProgressLine();
+        progressLine.moveForward(100);
+        watchdog.currentTime += 10_000;
+        watchdog.check();
+        assertThat(progressLine.isStalled()).isFalse();
+    }
+
+    @Test
+    public void thread_dump_is_written_when_stall_is_detected() throws Exception {
+        watchdog.setThreadDumpDirectory(folder.getRoot());
+        startProgressLine();
+        watchdog.currentTime += 10_000;
+        watchdog.check();
+        File[] dumps = folder.getRoot().listFiles();
+        assertThat(dumps).hasSize(1);
+        String dump = new String(Files.readAllBytes(dumps[0].toPath()), UTF_8);
+        assertThat(dump).contains(
+            "\"" + Thread.currentThread().getName() + "\"",
+            StallWatchdogTest.class.getName() + ".");
+    }
+
+    @Test
+    public void watchdog_detects_stall_in_the_background() throws Exception {
+        StallWatchdog watchdog = new StallWatchdog(20, MILLISECONDS);
+        progressLine.setStallWatchdog(watchdog);
+        progressLine.startWithNumberOfSteps(100);
+        long end = System.currentTimeMillis() + 5_000;
+        while (!progressLine.isStalled() && System.currentTimeMillis() < end)
+            Thread.sleep(1);
+        watchdog.stop();
+        assertThat(progressLine.isStalled()).isTrue();
+    }
+
+    @Test
+    public void watchdog_keeps_checking_if_listener_throws_an_exception()
+            throws Exception {
+        StallWatchdog watchdog = new StallWatchdog(20, MILLISECONDS);
+        final List<ProgressSnapshot> stalls = new CopyOnWriteArrayList<>();
+        watchdog.setStallListener(new StallListener() {
+            @Override
+            public void progressLineStalled(ProgressSnapshot snapshot) {
+                stalls.add(snapshot);
+                throw new RuntimeException("dummy exception");
+            }
+        });
+        progressLine.setStallWatchdog(watchdog);
+        progressLine.startWithNumberOfSteps(100);
+        long end = System.currentTimeMillis() + 5_000;
+        while (stalls.size() < 2 && System.currentTimeMillis() < end) {
+            if (progressLine.isStalled() && stalls.size() == 1
+                    && progressLine.getSnapshot().getCurrentStep() == 0)
+                progressLine.moveForward();
+            Thread.sleep(1);
+        }
+        watchdog.stop();
+        assertThat(stalls).hasSize(2);
+        assertThat(systemErrRule.getLog()).contains("dummy exception");
+    }
+
+    @Test
+    public void threshold_must_be_positive() {
+        Throwable exception = exceptionThrownBy(new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                new StallWatchdog(0, SECONDS);
+            }
+        });
+        assertThat(exception)
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("You cannot set the threshold to 0 because it must be positive.");
+    }
+
+    @Test
+    public void watchdog_cannot_watch_two_progress_lines() {
+        progressLine.setStallWatchdog(watchdog);
+        Throwable exception = exceptionThrownBy(new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                new ProgressLine().setStallWatchdog(watchdog);
+            }
+        });
+        assertThat(exception)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("The watchdog is already watching another progress line.");
+    }
+
+    private void startProgressLine() {
+        watchdog.setStallListener(new StallListener() {
+            @Override
+            public void progressLineStalled(ProgressSnapshot snapshot) {
+                stalls.add(snapshot);
+            }
+        });
+        progressLine.setStallWatchdog(watchdog);
+        progressLine.startWithNumberOfSteps(100);
+    }
+
+    private static class StallWatchdogWithManagedSystemTime extends StallWatchdog {
+        long currentTime = 54984658; //arbitrary time stamp
+
+        StallWatchdogWithManagedSystemTime() {
+            //the background thread does not check within the test.
+            super(10, SECONDS);
+        }
+
+        @Override
+        long getTime() {
+            return currentTime;
+        }
+    }
+}
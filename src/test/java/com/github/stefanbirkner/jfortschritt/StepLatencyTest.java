@@ -0,0 +1,86 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.StringWriter;
+import org.junit.Test;
+
+public class StepLatencyTest {
+    private final StepLatencyWithManagedSystemTime latency
+        = new StepLatencyWithManagedSystemTime();
+
+    @Test
+    public void nothing_is_shown_before_first_step() {
+        latency.progressLineStarted(100);
+        assertThat(latency.getOutputForStep(0)).isEmpty();
+    }
+
+    @Test
+    public void median_99th_percentile_and_maximum_are_shown() {
+        latency.progressLineStarted(100);
+        for (int i = 0; i < 98; ++i)
+            latency.moveForwardAfter(1_000_000);
+        latency.moveForwardAfter(20_000_000);
+        latency.moveForwardAfter(40_000_000);
+        assertThat(latency.getOutputForStep(100))
+            .isEqualTo("p50 1.0ms p99 21ms max 40ms");
+    }
+
+    @Test
+    public void time_of_multiple_steps_at_once_is_split_between_the_steps() {
+        latency.progressLineStarted(100);
+        latency.currentTime += 10_000;
+        latency.movedForward(10);
+        assertThat(latency.getOutputForStep(10))
+            .isEqualTo("p50 1.0us p99 1.0us max 1.0us");
+    }
+
+    @Test
+    public void values_are_bucketed_with_small_relative_error() {
+        latency.progressLineStarted(100);
+        latency.moveForwardAfter(1_000_123);
+        latency.moveForwardAfter(1_000_123_456);
+        assertThat(latency.getOutputForStep(2))
+            .isEqualTo("p50 1.0ms p99 1.0s max 1.0s");
+    }
+
+    @Test
+    public void report_contains_percentiles_and_buckets() {
+        latency.progressLineStarted(4);
+        latency.moveForwardAfter(5);
+        latency.moveForwardAfter(5);
+        latency.moveForwardAfter(5);
+        latency.moveForwardAfter(7);
+        String n = System.lineSeparator();
+        assertThat(latency.getReport()).isEqualTo(
+            "steps 4 p50 5ns p90 7ns p99 7ns p99.9 7ns max 7ns" + n
+                + "  <= 5ns              3  75.0%" + n
+                + "  <= 7ns              1 100.0%");
+    }
+
+    @Test
+    public void progress_line_informs_part_about_every_move() {
+        StepLatency latency = new StepLatency();
+        ProgressLine progressLine = new ProgressLine(
+            new WriterSink(new StringWriter()), latency);
+        progressLine.startWithNumberOfSteps(10);
+        progressLine.moveForward();
+        progressLine.moveForward(3);
+        progressLine.setProgress(10);
+        assertThat(latency.getReport()).startsWith("steps 10 ");
+    }
+
+    private static class StepLatencyWithManagedSystemTime extends StepLatency {
+        long currentTime = 548_659_846_156L; //arbitrary time stamp
+
+        void moveForwardAfter(long duration) {
+            currentTime += duration;
+            movedForward(1);
+        }
+
+        @Override
+        long getTime() {
+            return currentTime;
+        }
+    }
+}
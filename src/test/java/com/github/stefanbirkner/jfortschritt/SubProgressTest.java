@@ -0,0 +1,115 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static org.assertj.core.api.Assertions.*;
+
+import com.github.stefanbirkner.fishbowl.Statement;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class SubProgressTest {
+    private final StringWriter writer = new StringWriter();
+    private final ProgressLine progressLine
+        = new ProgressLine(new WriterSink(writer), new Counter());
+
+    @Test
+    public void progress_line_is_moved_forward_by_weighted_fraction() {
+        progressLine.startWithNumberOfSteps(100);
+        SubProgress subProgress = progressLine.createSubProgress(80, 4);
+        subProgress.moveForward();
+        assertThat(writer.toString()).endsWith("(20/100)");
+    }
+
+    @Test
+    public void completed_sub_progress_moves_progress_line_forward_by_its_weight() {
+        progressLine.startWithNumberOfSteps(100);
+        SubProgress subProgress = progressLine.createSubProgress(15, 7);
+        subProgress.moveForward(7);
+        assertThat(writer.toString()).endsWith("(15/100)");
+    }
+
+    @Test
+    public void nested_sub_progress_moves_progress_line_forward() {
+        progressLine.startWithNumberOfSteps(100);
+        SubProgress subProgress = progressLine.createSubProgress(50, 10);
+        SubProgress nestedSubProgress = subProgress.createSubProgress(10, 2);
+        nestedSubProgress.moveForward();
+        assertThat(writer.toString()).endsWith("(25/100)");
+    }
+
+    @Test
+    public void sub_progress_without_steps_is_complete_immediately() {
+        progressLine.startWithNumberOfSteps(100);
+        progressLine.createSubProgress(5, 0);
+        assertThat(writer.toString()).endsWith("(5/100)");
+    }
+
+    @Test
+    public void sub_progresses_cannot_exceed_the_number_of_steps() {
+        progressLine.startWithNumberOfSteps(100);
+        progressLine.createSubProgress(80, 10);
+        Throwable e = exceptionThrownBy(new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                progressLine.createSubProgress(30, 10);
+            }
+        });
+        assertThat(e)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("You cannot create a sub progress with weight 30"
+                + " because only 20 steps are not assigned to other sub progresses.");
+    }
+
+    @Test
+    public void sub_progress_cannot_be_moved_beyond_its_end() {
+        progressLine.startWithNumberOfSteps(100);
+        final SubProgress subProgress = progressLine.createSubProgress(100, 1);
+        subProgress.moveForward();
+        Throwable e = exceptionThrownBy(new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                subProgress.moveForward();
+            }
+        });
+        assertThat(e).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void failed_move_does_not_change_progress() {
+        progressLine.startWithNumberOfSteps(100);
+        final SubProgress subProgress = progressLine.createSubProgress(100, 1);
+        subProgress.moveForward();
+        exceptionThrownBy(new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                subProgress.moveForward();
+            }
+        });
+        //fails if the sub progress is beyond its end
+        subProgress.moveForward(0);
+    }
+
+    @Test
+    public void sub_progresses_can_be_moved_forward_by_multiple_threads()
+            throws Exception {
+        progressLine.startWithNumberOfSteps(1000);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; ++i) {
+            final SubProgress subProgress = progressLine.createSubProgress(250, 999);
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    for (int step = 0; step < 999; ++step)
+                        subProgress.moveForward();
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertThat(writer.toString()).endsWith("(1000/1000)" + System.lineSeparator());
+    }
+}
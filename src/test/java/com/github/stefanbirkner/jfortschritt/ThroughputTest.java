@@ -0,0 +1,122 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static com.github.stefanbirkner.jfortschritt.Throughput.Unit.BYTES;
+import static com.github.stefanbirkner.jfortschritt.Throughput.Unit.ITEMS;
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.Test;
+
+public class ThroughputTest {
+    @Test
+    public void nothing_is_shown_before_first_step() {
+        ThroughputWithManagedSystemTime throughput
+            = new ThroughputWithManagedSystemTime(ITEMS);
+        throughput.progressLineStarted(100);
+        assertThat(throughput.getOutputForStepAtTime(0, 1_000)).isEmpty();
+    }
+
+    @Test
+    public void current_and_average_rate_are_shown() {
+        ThroughputWithManagedSystemTime throughput
+            = new ThroughputWithManagedSystemTime(ITEMS);
+        throughput.progressLineStarted(100_000);
+        String output = throughput.getOutputForStepAtTime(25_000, 2_000);
+        assertThat(output).isEqualTo("12.5k/s avg 12.5k/s");
+    }
+
+    @Test
+    public void rates_of_items_are_scaled_by_powers_of_1000() {
+        ThroughputWithManagedSystemTime throughput
+            = new ThroughputWithManagedSystemTime(ITEMS);
+        throughput.progressLineStarted(10_000_000);
+        String output = throughput.getOutputForStepAtTime(3_000_000, 1_000);
+        assertThat(output).isEqualTo("3.0M/s avg 3.0M/s");
+    }
+
+    @Test
+    public void rates_of_bytes_are_scaled_by_powers_of_1024() {
+        ThroughputWithManagedSystemTime throughput
+            = new ThroughputWithManagedSystemTime(BYTES);
+        throughput.progressLineStarted(100L * 1024 * 1024);
+        String output = throughput.getOutputForStepAtTime(512 * 1024 * 3, 1_000);
+        assertThat(output).isEqualTo("1.5 MiB/s avg 1.5 MiB/s");
+    }
+
+    @Test
+    public void rate_that_is_rounded_up_to_the_base_is_shown_with_next_suffix() {
+        ThroughputWithManagedSystemTime throughput
+            = new ThroughputWithManagedSystemTime(ITEMS);
+        throughput.progressLineStarted(10_000_000);
+        String output = throughput.getOutputForStepAtTime(999_960, 1_000);
+        assertThat(output).isEqualTo("1.0M/s avg 1.0M/s");
+    }
+
+    @Test
+    public void rate_that_is_rounded_up_to_100_is_shown_without_decimal_place() {
+        ThroughputWithManagedSystemTime throughput
+            = new ThroughputWithManagedSystemTime(ITEMS);
+        throughput.progressLineStarted(10_000_000);
+        String output = throughput.getOutputForStepAtTime(99_960, 1_000);
+        assertThat(output).isEqualTo("100k/s avg 100k/s");
+    }
+
+    @Test
+    public void rates_are_appended_to_the_output() {
+        ThroughputWithManagedSystemTime throughput
+            = new ThroughputWithManagedSystemTime(ITEMS);
+        throughput.progressLineStarted(100_000);
+        throughput.currentTime = 2_000;
+        StringBuilder output = new StringBuilder("rate ");
+        assertThat(throughput.isOutputChanged(25_000)).isTrue();
+        throughput.appendOutputForStep(25_000, output);
+        assertThat(output.toString()).isEqualTo("rate 12.5k/s avg 12.5k/s");
+    }
+
+    @Test
+    public void output_is_unchanged_if_rounded_rates_are_unchanged() {
+        ThroughputWithManagedSystemTime throughput
+            = new ThroughputWithManagedSystemTime(ITEMS);
+        throughput.progressLineStarted(500);
+        throughput.currentTime = 2_000;
+        throughput.isOutputChanged(500);
+        throughput.appendOutputForStep(500, new StringBuilder());
+        throughput.currentTime = 2_001;
+        assertThat(throughput.isOutputChanged(500)).isFalse();
+    }
+
+    @Test
+    public void only_average_rate_is_shown_if_finished() {
+        ThroughputWithManagedSystemTime throughput
+            = new ThroughputWithManagedSystemTime(ITEMS);
+        throughput.progressLineStarted(500);
+        String output = throughput.getOutputForStepAtTime(500, 2_000);
+        assertThat(output).isEqualTo("avg 250/s");
+    }
+
+    @Test
+    public void average_rate_of_a_task_that_finished_within_a_second_uses_the_elapsed_time() {
+        ThroughputWithManagedSystemTime throughput
+            = new ThroughputWithManagedSystemTime(ITEMS);
+        throughput.progressLineStarted(500);
+        String output = throughput.getOutputForStepAtTime(500, 100);
+        assertThat(output).isEqualTo("avg 5.0k/s");
+    }
+
+    private static class ThroughputWithManagedSystemTime extends Throughput {
+        long currentTime = 0;
+
+        ThroughputWithManagedSystemTime(Unit unit) {
+            super(unit);
+        }
+
+        String getOutputForStepAtTime(long step, long time) {
+            currentTime = time;
+            return getOutputForStep(step);
+        }
+
+        @Override
+        long getTime() {
+            return currentTime;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.stefanbirkner.jfortschritt;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import org.junit.Test;
+
+public class WriterSinkTest {
+    @Test
+    public void sink_writes_the_given_number_of_chars_to_the_writer() {
+        StringWriter writer = new StringWriter();
+        WriterSink sink = new WriterSink(writer);
+        sink.write("[=>]abc".toCharArray(), 4);
+        assertThat(writer.toString()).isEqualTo("[=>]");
+    }
+
+    @Test
+    public void sink_reports_an_error_if_the_writer_fails() {
+        WriterSink sink = new WriterSink(new FailingWriter());
+        sink.write("[=>]".toCharArray(), 4);
+        assertThat(sink.checkError()).isTrue();
+    }
+
+    private static class FailingWriter extends Writer {
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            throw new IOException("dummy exception");
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}